@@ -0,0 +1,153 @@
+package com.eliza;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Admission control around {@link Eliza#respond}.
+ *
+ * <p>At most {@code maxConcurrent} turns run at once and at most
+ * {@code maxQueued} wait for a slot, each for no longer than the queue
+ * timeout. A turn that finds the queue full, or whose wait runs out, is shed
+ * according to the {@link Overload} policy: either answered with the
+ * {@code @none} fallback, which costs no matching at all, or rejected with a
+ * retry hint. Shed turns never touch the session's memory or insult count.
+ */
+public class AdmissionController {
+
+    /** What to do with a turn that cannot be admitted in time. */
+    public enum Overload {
+        /** Answer with the cheap {@code @none} fallback reply. */
+        DEGRADE,
+        /** Refuse the turn and tell the caller when to retry. */
+        REJECT
+    }
+
+    /** How a turn was handled. */
+    public enum Outcome { SERVED, DEGRADED, REJECTED }
+
+    /**
+     * The result of an admitted or shed turn. {@code text} is null and
+     * {@code retryAfter} is set only when the turn was rejected.
+     */
+    public record Reply(Outcome outcome, String text, Duration retryAfter) {
+    }
+
+    private static final double EWMA_WEIGHT = 0.2;
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long queueTimeoutNanos;
+    private final Overload overload;
+    private final Semaphore slots;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong averageServiceNanos = new AtomicLong();
+    private final LongAdder served = new LongAdder();
+    private final LongAdder degraded = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public AdmissionController(int maxConcurrent, int maxQueued, Duration queueTimeout, Overload overload) {
+        if (maxConcurrent < 1 || maxQueued < 0) {
+            throw new IllegalArgumentException("maxConcurrent must be >= 1 and maxQueued >= 0");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.overload = overload;
+        this.slots = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Run one turn of the given session if there is capacity in time, or
+     * shed it.
+     */
+    public Reply respond(Eliza eliza, String input) {
+        return respond(() -> eliza.respond(input), eliza::fallback);
+    }
+
+    /**
+     * Run {@code turn} once a slot is held, or answer with {@code fallback}
+     * when shed. Callers that guard the session with their own lock should
+     * take it inside {@code turn}, so no lock is held while waiting here.
+     */
+    public Reply respond(Supplier<String> turn, Supplier<String> fallback) {
+        if (!acquire()) {
+            return shed(fallback);
+        }
+        long start = System.nanoTime();
+        try {
+            String text = turn.get();
+            served.increment();
+            return new Reply(Outcome.SERVED, text, null);
+        } finally {
+            recordServiceTime(System.nanoTime() - start);
+            slots.release();
+        }
+    }
+
+    public long servedCount() {
+        return served.sum();
+    }
+
+    public long degradedCount() {
+        return degraded.sum();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    /** Turns currently waiting for a slot. */
+    public int queuedCount() {
+        return queued.get();
+    }
+
+    private boolean acquire() {
+        try {
+            // The timed form honours fairness; plain tryAcquire() would barge past queued turns
+            if (slots.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                return false;
+            }
+            try {
+                return slots.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+            } finally {
+                queued.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Reply shed(Supplier<String> fallback) {
+        if (overload == Overload.DEGRADE) {
+            degraded.increment();
+            return new Reply(Outcome.DEGRADED, fallback.get(), null);
+        }
+        rejected.increment();
+        return new Reply(Outcome.REJECTED, null, retryAfter());
+    }
+
+    /**
+     * Time until the current backlog should have drained: the average
+     * service time for every queued turn plus this one, spread over the slots.
+     */
+    private Duration retryAfter() {
+        long backlog = (long) queued.get() + 1;
+        long nanos = averageServiceNanos.get() * backlog / maxConcurrent;
+        return Duration.ofNanos(Math.max(nanos, TimeUnit.MILLISECONDS.toNanos(1)));
+    }
+
+    private void recordServiceTime(long nanos) {
+        averageServiceNanos.updateAndGet(avg -> avg == 0 ? nanos : (long) (avg + EWMA_WEIGHT * (nanos - avg)));
+    }
+}
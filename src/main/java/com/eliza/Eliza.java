@@ -2,16 +2,22 @@ package com.eliza;
 
 import org.yaml.snakeyaml.Yaml;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.text.Normalizer;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * The ELIZA engine. Implements keyword-based pattern matching with
@@ -19,11 +25,22 @@ import java.util.regex.Pattern;
  * Weizenbaum's original 1966 design.
  *
  * <p>Rules and reflections are loaded from YAML files on the classpath:
- * {@code reflections.yaml} and {@code rules.yaml}.
+ * {@code reflections_xx.yaml} and {@code rules_xx.yaml}. Keywords and
+ * decompositions are accent-stripped once at load time, and rules are kept
+ * sorted by descending priority, so {@link #respond} only has to filter.
+ *
+ * <p>Each instance is one conversation and owns all of its state (rules with
+ * their round-robin cursors, memory, insult count); nothing is shared between
+ * instances, so separate sessions can run on separate threads freely. A single
+ * session is thread-safe: {@link #respond} and {@link #hasParityError} are
+ * synchronized, so concurrent turns are serialized and no cursor advance,
+ * memory entry, or insult is lost.
  */
 public class Eliza {
 
-    private static final int INSULT_THRESHOLD = 4;
+    static final int INSULT_THRESHOLD = 4;
+    // No comma: some decompositions span one, e.g. "was wäre, wenn"
+    private static final String CLAUSE_DELIMITERS = ".;!?\n";
     public static final String PARITY_ERROR = "PARITY ERROR!!! PARITY ERROR!!! SESSION TERMINATED.";
 
     private final List<Rule> rules;
@@ -32,90 +49,251 @@ public class Eliza {
     private final String language;
     private int insultCount;
 
+    // Tail of the chain of asynchronous turns, so they run in submission order
+    private final Object asyncLock = new Object();
+    private CompletableFuture<String> lastAsyncTurn = CompletableFuture.completedFuture(null);
+
     public Eliza() {
         this("us");
     }
 
     public Eliza(String language) {
         this.language = language;
-        this.rules = new ArrayList<>();
+        this.rules = loadRules(language);
         this.memory = new LinkedList<>();
-        this.reflections = loadReflections();
+        this.reflections = loadReflections(language);
         this.insultCount = 0;
-        loadRules();
     }
 
-    public boolean hasParityError() {
+    public synchronized boolean hasParityError() {
         return insultCount >= INSULT_THRESHOLD;
     }
 
+    public String language() {
+        return language;
+    }
+
+    /**
+     * Capture this session's mutable state: insult count, round-robin
+     * cursors, and pending memories.
+     */
+    public synchronized SessionState snapshot() {
+        int count = 0;
+        for (Rule rule : rules) {
+            count += rule.patterns().size();
+        }
+        int[] cursors = new int[count];
+        int i = 0;
+        for (Rule rule : rules) {
+            for (Rule.PatternResponse pr : rule.patterns()) {
+                cursors[i++] = pr.index();
+            }
+        }
+        return new SessionState(language, insultCount, cursors, List.copyOf(memory));
+    }
+
+    /**
+     * Replace this session's mutable state with a snapshot taken from a
+     * session of the same language.
+     */
+    public synchronized void restore(SessionState state) {
+        if (!language.equals(state.language())) {
+            throw new IllegalArgumentException("Cannot restore a " + state.language() + " session into " + language);
+        }
+        int[] cursors = state.cursors();
+        int i = 0;
+        for (Rule rule : rules) {
+            for (Rule.PatternResponse pr : rule.patterns()) {
+                if (i >= cursors.length) {
+                    throw new IllegalArgumentException("Snapshot has fewer cursors than the loaded rules");
+                }
+                pr.setIndex(cursors[i++]);
+            }
+        }
+        if (i != cursors.length) {
+            throw new IllegalArgumentException("Snapshot has more cursors than the loaded rules");
+        }
+        memory.clear();
+        memory.addAll(state.memory());
+        insultCount = state.insultCount();
+    }
+
+    /**
+     * Return the next {@code @none} fallback reply without looking at any
+     * input. Used to answer cheaply when the engine is overloaded.
+     */
+    public synchronized String fallback() {
+        return applyFallback();
+    }
+
+    /**
+     * Process user input on the default executor (see {@link ElizaExecutors})
+     * without blocking the caller.
+     */
+    public CompletionStage<String> respondAsync(String input) {
+        return respondAsync(input, ElizaExecutors.defaultExecutor());
+    }
+
+    /**
+     * Process user input on the given executor without blocking the caller.
+     * Turns submitted to the same session run one after another, in the order
+     * they were submitted; a failed turn does not stop the ones after it.
+     */
+    public CompletionStage<String> respondAsync(String input, Executor executor) {
+        synchronized (asyncLock) {
+            CompletableFuture<String> turn = lastAsyncTurn.handleAsync((previous, error) -> respond(input), executor);
+            lastAsyncTurn = turn;
+            return turn;
+        }
+    }
+
     /**
      * Process user input and return ELIZA's response.
      */
-    public String respond(String input) {
-        String text = preprocess(input);
+    public synchronized String respond(String input) {
+        return respondTo(preprocess(input), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Process input of any length with bounded work, the way Weizenbaum's
+     * original did: the input is split into clauses at sentence punctuation,
+     * and the first clause with a keyword whose decomposition matches is
+     * answered. At most {@link InputLimits#maxChars()} characters are read
+     * from {@code input}; anything after that is left unread. Each captured
+     * phrase is cut to {@link InputLimits#maxCaptureChars()} before reflection.
+     */
+    public String respond(Reader input, InputLimits limits) throws IOException {
+        // Read before locking, so a slow reader never holds up the session
+        List<String> clauses = new ArrayList<>();
+        StringBuilder clause = new StringBuilder();
+        char[] buffer = new char[512];
+        int scanned = 0;
+        while (scanned < limits.maxChars()) {
+            int n = input.read(buffer, 0, Math.min(buffer.length, limits.maxChars() - scanned));
+            if (n < 0) {
+                break;
+            }
+            scanned += n;
+            for (int i = 0; i < n; i++) {
+                char c = buffer[i];
+                if (CLAUSE_DELIMITERS.indexOf(c) < 0) {
+                    clause.append(c);
+                    continue;
+                }
+                addIfKeyword(clauses, clause);
+            }
+        }
+        // The last clause may be cut short by the cap
+        addIfKeyword(clauses, clause);
+        return respondToClauses(clauses, limits.maxCaptureChars());
+    }
+
+    /**
+     * Bounded-work variant of {@link #respond(String)} for text already in memory.
+     */
+    public String respond(CharSequence input, InputLimits limits) {
+        try {
+            return respond(new CharSequenceReader(input), limits);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void addIfKeyword(List<String> clauses, StringBuilder clause) {
+        String text = preprocess(clause.toString());
+        clause.setLength(0);
+        if (hasKeyword(text)) {
+            clauses.add(text);
+        }
+    }
 
-        // Collect all matching rules, sorted by descending priority
-        List<Rule> matchingRules = new ArrayList<>();
+    private boolean hasKeyword(String text) {
         for (Rule rule : rules) {
-            if (text.contains(stripAccents(rule.keyword()))) {
-                matchingRules.add(rule);
+            if (text.contains(rule.keyword())) {
+                return true;
             }
         }
-        matchingRules.sort((a, b) -> Integer.compare(b.priority(), a.priority()));
+        return false;
+    }
+
+    private synchronized String respondTo(String text, int maxCapture) {
+        return respondToClauses(List.of(text), maxCapture);
+    }
 
-        // Try each matching rule in priority order until a pattern fits
-        boolean storedMemory = false;
-        for (Rule rule : matchingRules) {
-            int memorySizeBefore = memory.size();
-            String response = applyRule(rule, text);
-            storedMemory = storedMemory || memory.size() > memorySizeBefore;
+    /**
+     * Answer the first clause that some rule matches, or fall back once none
+     * does. One turn however many clauses are tried.
+     */
+    private synchronized String respondToClauses(List<String> clauses, int maxCapture) {
+        int memorySizeBefore = memory.size();
+        for (String text : clauses) {
+            String response = matchRules(text, maxCapture);
             if (response != null) {
-                if (rule.insult()) {
-                    insultCount++;
-                    if (insultCount >= INSULT_THRESHOLD) {
-                        return PARITY_ERROR;
-                    }
-                }
                 return response;
             }
         }
 
         // Try memory — but not if we just stored one this turn
-        if (!storedMemory && !memory.isEmpty()) {
+        if (memory.size() == memorySizeBefore && !memory.isEmpty()) {
             return memory.pollFirst();
         }
 
         // Fallback
-        return applyFallback(text);
+        return applyFallback();
     }
 
-    private String applyRule(Rule rule, String text) {
+    /**
+     * The reply of the first rule that matches {@code text}, or null. Memories
+     * stored along the way are kept either way.
+     */
+    private String matchRules(String text, int maxCapture) {
+        // Rules are already sorted by descending priority; try each in turn until a pattern fits
+        for (Rule rule : rules) {
+            if (!text.contains(rule.keyword())) {
+                continue;
+            }
+            String response = applyRule(rule, text, maxCapture);
+            if (response != null) {
+                if (rule.insult()) {
+                    insultCount++;
+                    if (insultCount >= INSULT_THRESHOLD) {
+                        return PARITY_ERROR;
+                    }
+                }
+                return response;
+            }
+        }
+        return null;
+    }
+
+    private String applyRule(Rule rule, String text, int maxCapture) {
         for (Rule.PatternResponse pr : rule.patterns()) {
-            Pattern pattern = Pattern.compile(stripAccents(pr.decomposition()), Pattern.CASE_INSENSITIVE);
-            Matcher matcher = pattern.matcher(text);
+            Matcher matcher = pr.pattern().matcher(text);
             if (matcher.find()) {
                 String template = pr.nextReassembly();
 
                 // Check if this is a memory-store directive
                 if (template.startsWith("@memory:")) {
                     String memoryTemplate = template.substring(8);
-                    String memResponse = fillTemplate(memoryTemplate, matcher);
+                    String memResponse = fillTemplate(memoryTemplate, matcher, maxCapture);
                     memory.addLast(memResponse);
                     return null; // Signal to keep searching
                 }
 
-                return fillTemplate(template, matcher);
+                return fillTemplate(template, matcher, maxCapture);
             }
         }
         return null;
     }
 
-    private String fillTemplate(String template, Matcher matcher) {
+    private String fillTemplate(String template, Matcher matcher, int maxCapture) {
         String result = template;
         for (int i = 1; i <= matcher.groupCount(); i++) {
             String captured = matcher.group(i);
             if (captured != null) {
+                if (captured.length() > maxCapture) {
+                    captured = captured.substring(0, maxCapture);
+                }
                 captured = reflect(captured.trim());
                 result = result.replace("{" + i + "}", captured);
             }
@@ -123,7 +301,7 @@ public class Eliza {
         return result;
     }
 
-    private String applyFallback(String text) {
+    private String applyFallback() {
         for (Rule rule : rules) {
             if ("@none".equals(rule.keyword())) {
                 for (Rule.PatternResponse pr : rule.patterns()) {
@@ -175,10 +353,10 @@ public class Eliza {
     // ─────────────────────────────────────────────────────────────
 
     @SuppressWarnings("unchecked")
-    private Map<String, String> loadReflections() {
+    static Map<String, String> loadReflections(String language) {
         String filename = "reflections_" + language + ".yaml";
         Yaml yaml = new Yaml();
-        try (InputStream in = getClass().getClassLoader().getResourceAsStream(filename)) {
+        try (InputStream in = Eliza.class.getClassLoader().getResourceAsStream(filename)) {
             if (in == null) {
                 throw new IllegalStateException(filename + " not found on classpath");
             }
@@ -195,34 +373,67 @@ public class Eliza {
         }
     }
 
+    /**
+     * Load the rules for a language, with keywords and decompositions
+     * accent-stripped and the list stably sorted by descending priority.
+     */
     @SuppressWarnings("unchecked")
-    private void loadRules() {
+    static List<Rule> loadRules(String language) {
         String filename = "rules_" + language + ".yaml";
         Yaml yaml = new Yaml();
-        try (InputStream in = getClass().getClassLoader().getResourceAsStream(filename)) {
+        try (InputStream in = Eliza.class.getClassLoader().getResourceAsStream(filename)) {
             if (in == null) {
                 throw new IllegalStateException(filename + " not found on classpath");
             }
             Map<String, Object> root = yaml.load(in);
             List<Map<String, Object>> ruleList = (List<Map<String, Object>>) root.get("rules");
 
+            List<Rule> rules = new ArrayList<>();
             for (Map<String, Object> entry : ruleList) {
-                String keyword = (String) entry.get("keyword");
+                String keyword = stripAccents((String) entry.get("keyword"));
                 int priority = (int) entry.get("priority");
                 boolean insult = Boolean.TRUE.equals(entry.get("insult"));
 
                 List<Map<String, Object>> patternEntries = (List<Map<String, Object>>) entry.get("patterns");
                 List<Rule.PatternResponse> patternList = new ArrayList<>();
                 for (Map<String, Object> p : patternEntries) {
-                    String decomposition = (String) p.get("decomposition");
+                    String decomposition = stripAccents((String) p.get("decomposition"));
                     List<String> reassemblies = (List<String>) p.get("reassemblies");
                     patternList.add(new Rule.PatternResponse(decomposition, reassemblies));
                 }
 
                 rules.add(new Rule(keyword, priority, insult, patternList));
             }
+            rules.sort(Comparator.comparingInt(Rule::priority).reversed());
+            return rules;
         } catch (java.io.IOException e) {
             throw new IllegalStateException("Failed to load " + filename, e);
         }
     }
+
+    /** A {@link Reader} over a {@link CharSequence} that does not copy it. */
+    private static final class CharSequenceReader extends Reader {
+        private final CharSequence source;
+        private int position;
+
+        CharSequenceReader(CharSequence source) {
+            this.source = source;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position >= source.length()) {
+                return -1;
+            }
+            int n = Math.min(length, source.length() - position);
+            for (int i = 0; i < n; i++) {
+                buffer[offset + i] = source.charAt(position++);
+            }
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
 }
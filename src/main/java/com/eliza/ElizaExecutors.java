@@ -0,0 +1,43 @@
+package com.eliza;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The default executor for asynchronous turns ({@link Eliza#respondAsync},
+ * {@link ElizaProcessor}).
+ *
+ * <p>On a runtime with virtual threads (Java 21+) every turn gets its own
+ * virtual thread, so blocked turns never starve a pool. On older runtimes it
+ * falls back to a cached pool of daemon platform threads.
+ */
+public final class ElizaExecutors {
+
+    private ElizaExecutors() {
+    }
+
+    public static ExecutorService defaultExecutor() {
+        return Holder.DEFAULT;
+    }
+
+    private static final class Holder {
+        static final ExecutorService DEFAULT = create();
+    }
+
+    private static ExecutorService create() {
+        try {
+            // Looked up reflectively so the code still compiles and runs on Java 17
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            ThreadFactory factory = runnable -> {
+                Thread thread = new Thread(runnable, "eliza-async-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            return Executors.newCachedThreadPool(factory);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.eliza;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link Flow.Processor} that turns a stream of utterances for one session
+ * into a stream of ELIZA's responses.
+ *
+ * <p>Backpressure runs end to end: the processor requests one utterance at a
+ * time from upstream, and only while every subscriber has unmet demand and
+ * room in its buffer. A subscriber's {@code request}, a delivery, or a
+ * cancellation pulls again. Nothing ever waits for buffer space, so a stalled
+ * subscriber holds up only its own session, even on a small shared executor.
+ * Turns run on the given executor, never on the upstream publisher's thread,
+ * and always in order.
+ */
+public class ElizaProcessor extends SubmissionPublisher<String> implements Flow.Processor<String, String> {
+
+    private final Eliza eliza;
+    private final Executor executor;
+    private final List<DemandListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean awaiting = new AtomicBoolean();
+    private volatile Flow.Subscription subscription;
+    // Signals arrive serially (Reactive Streams rule 1.3); this chain keeps their work serial too
+    private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+
+    public ElizaProcessor(Eliza eliza) {
+        this(eliza, ElizaExecutors.defaultExecutor(), Flow.defaultBufferSize());
+    }
+
+    /**
+     * @param executor          runs the turns and delivers responses to subscribers
+     * @param maxBufferCapacity responses buffered per subscriber before turns pause
+     */
+    public ElizaProcessor(Eliza eliza, Executor executor, int maxBufferCapacity) {
+        super(executor, maxBufferCapacity);
+        this.eliza = eliza;
+        this.executor = executor;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        pull();
+    }
+
+    @Override
+    public void onNext(String utterance) {
+        tail = tail.thenRunAsync(() -> {
+            if (isClosed()) {
+                return;
+            }
+            try {
+                String response = eliza.respond(utterance);
+                synchronized (listeners) {
+                    // Pulled only while every buffer had room, so this never drops
+                    offer(response, null);
+                    listeners.forEach(DemandListener::offered);
+                }
+            } catch (RuntimeException e) {
+                subscription.cancel();
+                closeExceptionally(e);
+                return;
+            }
+            awaiting.set(false);
+            pull();
+        }, executor);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        tail = tail.thenRunAsync(() -> closeExceptionally(throwable), executor);
+    }
+
+    @Override
+    public void onComplete() {
+        tail = tail.thenRunAsync(this::close, executor);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super String> subscriber) {
+        DemandListener listener = new DemandListener(subscriber);
+        synchronized (listeners) {
+            // Listed first: onSubscribe may run, and request, before super.subscribe returns.
+            // A subscription that fails calls onError, which unlists it again.
+            listeners.add(listener);
+            super.subscribe(listener);
+        }
+    }
+
+    /**
+     * Request the next utterance if none is in flight and every subscriber
+     * can take a response. The in-flight flag is cleared before this runs, so
+     * a request racing a finished turn is never lost.
+     */
+    private void pull() {
+        Flow.Subscription upstream = subscription;
+        if (upstream == null || isClosed() || listeners.isEmpty()) {
+            return;
+        }
+        for (DemandListener listener : listeners) {
+            if (!listener.canTake()) {
+                return;
+            }
+        }
+        if (awaiting.compareAndSet(false, true)) {
+            upstream.request(1);
+        }
+    }
+
+    /** Passes a subscriber through, counting its demand and its undelivered responses. */
+    private final class DemandListener implements Flow.Subscriber<String> {
+        private final Flow.Subscriber<? super String> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger buffered = new AtomicInteger();
+
+        DemandListener(Flow.Subscriber<? super String> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        boolean canTake() {
+            return demand.get() > 0 && buffered.get() < getMaxBufferCapacity();
+        }
+
+        void offered() {
+            demand.decrementAndGet();
+            buffered.incrementAndGet();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription downstream) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    if (n > 0) {
+                        demand.accumulateAndGet(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+                    }
+                    downstream.request(n);
+                    pull();
+                }
+
+                @Override
+                public void cancel() {
+                    downstream.cancel();
+                    leave();
+                }
+            });
+        }
+
+        @Override
+        public void onNext(String item) {
+            subscriber.onNext(item);
+            buffered.decrementAndGet();
+            pull();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            leave();
+            subscriber.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            leave();
+            subscriber.onComplete();
+        }
+
+        private void leave() {
+            listeners.remove(this);
+            pull();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.eliza;
+
+/**
+ * Caps on the work done for one turn of {@link Eliza#respond(java.io.Reader, InputLimits)}.
+ *
+ * @param maxChars        characters read from the input, at most
+ * @param maxCaptureChars characters of each captured phrase kept for reflection
+ */
+public record InputLimits(int maxChars, int maxCaptureChars) {
+
+    public static final InputLimits DEFAULT = new InputLimits(4096, 256);
+
+    public InputLimits {
+        if (maxChars < 1 || maxCaptureChars < 1) {
+            throw new IllegalArgumentException("Limits must be positive");
+        }
+    }
+}
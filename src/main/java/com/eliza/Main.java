@@ -1,8 +1,13 @@
 package com.eliza;
 
+import com.eliza.cluster.ClusterNode;
 import org.yaml.snakeyaml.Yaml;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
@@ -11,19 +16,39 @@ import java.util.Scanner;
 /**
  * Console interface for the ELIZA chatbot.
  * Type "quit" or "bye" to exit.
+ *
+ * <p>With {@code --node <host:port> <member,member,...> [language]} it runs a
+ * cluster node instead (see {@link ClusterNode}) until the process is stopped.
+ *
+ * <p>{@code --warmup=<seconds>} runs a {@link Warmup} before the first turn
+ * and prints its report. Nodes warm up for {@value #NODE_WARMUP_SECONDS}
+ * seconds by default and report ready only afterwards; {@code --warmup=0}
+ * skips it.
  */
 public class Main {
 
-    public static void main(String[] args) {
-        String language = "us";
-        if (args.length > 0) {
-            String arg = args[0].toLowerCase();
-            if ("fr".equals(arg) || "us".equals(arg) || "de".equals(arg) || "es".equals(arg)) {
-                language = arg;
+    private static final int NODE_WARMUP_SECONDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        Duration warmup = null;
+        List<String> positional = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--warmup=")) {
+                warmup = Duration.ofSeconds(Long.parseLong(arg.substring("--warmup=".length())));
             } else {
-                System.err.println("Unknown language: " + args[0] + ". Supported: us, fr, de, es. Defaulting to us.");
+                positional.add(arg);
             }
         }
+        args = positional.toArray(String[]::new);
+
+        if (args.length > 0 && "--node".equals(args[0])) {
+            runNode(args, warmup != null ? warmup : Duration.ofSeconds(NODE_WARMUP_SECONDS));
+            return;
+        }
+        String language = args.length > 0 ? parseLanguage(args[0]) : "us";
+        if (warmup != null) {
+            warmUp(language, warmup);
+        }
 
         Map<String, Object> messages = loadMessages(language);
         Eliza eliza = new Eliza(language);
@@ -72,13 +97,53 @@ public class Main {
         scanner.close();
     }
 
+    private static void runNode(String[] args, Duration warmup) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: --node <host:port> <member,member,...> [language] [--warmup=<seconds>]");
+            System.exit(1);
+        }
+        String language = args.length > 3 ? parseLanguage(args[3]) : "us";
+        ClusterNode node = new ClusterNode(args[1], language, Arrays.asList(args[2].split(",")));
+        // Listen first so status probes see "not ready"; until join() our share of
+        // the sessions is still served by its previous owners
+        node.start();
+        warmUp(language, warmup);
+        node.join();
+        node.setReady(true);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                node.close();
+            } catch (IOException e) {
+                System.err.println("Failed to leave cluster: " + e.getMessage());
+            }
+        }));
+        System.out.println("ELIZA node listening on " + args[1]);
+    }
+
+    private static void warmUp(String language, Duration duration) {
+        if (duration.isZero()) {
+            return;
+        }
+        Warmup.Report report = new Warmup(List.of(language), duration).run();
+        System.err.println(report.summary());
+    }
+
+    private static String parseLanguage(String arg) {
+        String language = arg.toLowerCase();
+        if ("fr".equals(language) || "us".equals(language) || "de".equals(language) || "es".equals(language)) {
+            return language;
+        }
+        System.err.println("Unknown language: " + arg + ". Supported: us, fr, de, es. Defaulting to us.");
+        return "us";
+    }
+
     @SuppressWarnings("unchecked")
     private static List<String> getList(Map<String, Object> map, String key) {
         return (List<String>) map.get(key);
     }
 
     @SuppressWarnings("unchecked")
-    private static Map<String, Object> loadMessages(String language) {
+    static Map<String, Object> loadMessages(String language) {
         String filename = "messages_" + language + ".yaml";
         Yaml yaml = new Yaml();
         try (InputStream in = Main.class.getClassLoader().getResourceAsStream(filename)) {
@@ -1,6 +1,7 @@
 package com.eliza;
 
 import java.util.List;
+import java.util.regex.Pattern;
 
 /**
  * A keyword rule for ELIZA. Each rule has a keyword, a priority,
@@ -11,15 +12,21 @@ public record Rule(String keyword, int priority, boolean insult, List<PatternRes
     /**
      * A decomposition pattern paired with its possible reassembly responses.
      * The index tracks which reassembly to use next (round-robin).
+     *
+     * <p>The decomposition is compiled once at construction, so an invalid
+     * pattern fails when the rules are loaded rather than mid-conversation.
+     * The cursor is not synchronized; it is guarded by the owning {@link Eliza}.
      */
     public static class PatternResponse {
 
         private final String decomposition;
+        private final Pattern pattern;
         private final List<String> reassemblies;
         private int index;
 
         public PatternResponse(String decomposition, List<String> reassemblies) {
             this.decomposition = decomposition;
+            this.pattern = Pattern.compile(decomposition, Pattern.CASE_INSENSITIVE);
             this.reassemblies = reassemblies;
             this.index = 0;
         }
@@ -28,6 +35,25 @@ public record Rule(String keyword, int priority, boolean insult, List<PatternRes
             return decomposition;
         }
 
+        public Pattern pattern() {
+            return pattern;
+        }
+
+        public List<String> reassemblies() {
+            return reassemblies;
+        }
+
+        int index() {
+            return index;
+        }
+
+        void setIndex(int index) {
+            if (index < 0 || index >= reassemblies.size()) {
+                throw new IllegalArgumentException("Cursor " + index + " out of range for " + decomposition);
+            }
+            this.index = index;
+        }
+
         public String nextReassembly() {
             String response = reassemblies.get(index);
             index = (index + 1) % reassemblies.size();
@@ -0,0 +1,138 @@
+package com.eliza;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Build-time generator for the web client's rules bundles.
+ *
+ * <p>For each language, writes a minified {@code bundle_xx.json} holding the
+ * rules, reflections, and UI messages in the form the engine uses after
+ * loading: keywords and decompositions accent-stripped, rules sorted by
+ * descending priority, reflection keys normalized. Every decomposition is
+ * compiled on the way through, so a broken pattern fails the build.
+ *
+ * <p>Run by Maven in the {@code process-classes} phase with the output
+ * directory as its only argument.
+ */
+public final class RulesBundle {
+
+    static final List<String> LANGUAGES = List.of("us", "fr", "de", "es");
+
+    private RulesBundle() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: RulesBundle <output-directory>");
+            System.exit(1);
+        }
+        Path outputDir = Path.of(args[0]);
+        Files.createDirectories(outputDir);
+        for (String language : LANGUAGES) {
+            Path file = outputDir.resolve("bundle_" + language + ".json");
+            Files.writeString(file, toJson(language), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Build the minified JSON bundle for a language.
+     */
+    static String toJson(String language) {
+        Map<String, Object> bundle = new LinkedHashMap<>();
+        bundle.put("rules", rulesToMaps(Eliza.loadRules(language)));
+        bundle.put("reflections", Eliza.loadReflections(language));
+        bundle.put("messages", Main.loadMessages(language));
+        StringBuilder sb = new StringBuilder();
+        writeJson(bundle, sb);
+        return sb.toString();
+    }
+
+    private static List<Map<String, Object>> rulesToMaps(List<Rule> rules) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Rule rule : rules) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("keyword", rule.keyword());
+            entry.put("priority", rule.priority());
+            if (rule.insult()) {
+                entry.put("insult", true);
+            }
+            List<Map<String, Object>> patterns = new ArrayList<>();
+            for (Rule.PatternResponse pr : rule.patterns()) {
+                Map<String, Object> pattern = new LinkedHashMap<>();
+                pattern.put("decomposition", pr.decomposition());
+                pattern.put("reassemblies", pr.reassemblies());
+                patterns.add(pattern);
+            }
+            entry.put("patterns", patterns);
+            result.add(entry);
+        }
+        return result;
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // Minimal JSON writer (maps, lists, strings, numbers, booleans)
+    // ─────────────────────────────────────────────────────────────
+
+    private static void writeJson(Object value, StringBuilder sb) {
+        if (value == null) {
+            sb.append("null");
+        } else if (value instanceof String s) {
+            writeString(s, sb);
+        } else if (value instanceof Number || value instanceof Boolean) {
+            sb.append(value);
+        } else if (value instanceof Map<?, ?> map) {
+            sb.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                writeString(String.valueOf(entry.getKey()), sb);
+                sb.append(':');
+                writeJson(entry.getValue(), sb);
+            }
+            sb.append('}');
+        } else if (value instanceof List<?> list) {
+            sb.append('[');
+            for (int i = 0; i < list.size(); i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                writeJson(list.get(i), sb);
+            }
+            sb.append(']');
+        } else {
+            throw new IllegalArgumentException("Unsupported JSON value: " + value.getClass().getName());
+        }
+    }
+
+    private static void writeString(String s, StringBuilder sb) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
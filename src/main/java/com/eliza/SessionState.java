@@ -0,0 +1,229 @@
+package com.eliza;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The mutable state of one conversation, detached from its rules.
+ *
+ * <p>Cursors are the round-robin positions of every pattern, in the order the
+ * rules are loaded (descending priority, then file order), so a snapshot can
+ * only be restored into a session of the same language and rules file.
+ *
+ * <p>The wire format is compact: most cursors sit at zero, so only non-zero
+ * ones are written, as (position, value) pairs of unsigned varints.
+ * <pre>
+ *   byte    version
+ *   string  language
+ *   varint  insultCount
+ *   varint  cursorCount
+ *   varint  nonZeroCount, then nonZeroCount × (varint position, varint value)
+ *   varint  memoryCount, then memoryCount × string
+ * </pre>
+ * Strings are a varint byte length followed by UTF-8. Lengths are checked
+ * before anything is allocated, so a corrupt or hostile snapshot fails with an
+ * {@link IOException} instead of exhausting the heap. To keep every snapshot
+ * readable and small enough to move between nodes, a memory longer than
+ * {@value #MAX_MEMORY_CHARS} characters is clipped to that length when
+ * written, and once the memories written reach {@value #MAX_MEMORY_BYTES}
+ * encoded bytes the newer ones are dropped; the oldest are recalled first.
+ */
+public record SessionState(String language, int insultCount, int[] cursors, List<String> memory) {
+
+    private static final int VERSION = 1;
+    private static final int MAX_CURSORS = 1 << 16;
+    private static final int MAX_STRING_BYTES = 1 << 20;
+    // At most three UTF-8 bytes per char, so a clipped memory always reads back
+    static final int MAX_MEMORY_CHARS = MAX_STRING_BYTES / 3;
+    static final int MAX_MEMORY_BYTES = 1 << 23;
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static SessionState fromBytes(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return readFrom(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeByte(VERSION);
+        writeString(out, language);
+        writeVarint(out, insultCount);
+        writeVarint(out, cursors.length);
+        int nonZero = 0;
+        for (int cursor : cursors) {
+            if (cursor != 0) {
+                nonZero++;
+            }
+        }
+        writeVarint(out, nonZero);
+        for (int i = 0; i < cursors.length; i++) {
+            if (cursors[i] != 0) {
+                writeVarint(out, i);
+                writeVarint(out, cursors[i]);
+            }
+        }
+        List<byte[]> kept = new ArrayList<>();
+        int budget = MAX_MEMORY_BYTES;
+        for (String entry : memory) {
+            byte[] utf8 = clip(entry).getBytes(StandardCharsets.UTF_8);
+            budget -= varintSize(utf8.length) + utf8.length;
+            if (budget < 0) {
+                break;
+            }
+            kept.add(utf8);
+        }
+        writeVarint(out, kept.size());
+        for (byte[] utf8 : kept) {
+            writeVarint(out, utf8.length);
+            out.write(utf8);
+        }
+    }
+
+    public static SessionState readFrom(DataInput in) throws IOException {
+        checkVersion(in);
+        String language = readString(in);
+        int insultCount = readVarint(in);
+        int[] cursors = new int[readLength(in, MAX_CURSORS)];
+        int nonZero = readVarint(in);
+        for (int i = 0; i < nonZero; i++) {
+            int position = readVarint(in);
+            if (position >= cursors.length) {
+                throw new IOException("Cursor position " + position + " out of range");
+            }
+            cursors[position] = readVarint(in);
+        }
+        int memoryCount = readVarint(in);
+        List<String> memory = new ArrayList<>(Math.min(memoryCount, 16));
+        for (int i = 0; i < memoryCount; i++) {
+            memory.add(readString(in));
+        }
+        return new SessionState(language, insultCount, cursors, List.copyOf(memory));
+    }
+
+    private static String clip(String entry) {
+        if (entry.length() <= MAX_MEMORY_CHARS) {
+            return entry;
+        }
+        int end = MAX_MEMORY_CHARS;
+        if (Character.isHighSurrogate(entry.charAt(end - 1))) {
+            end--;
+        }
+        return entry.substring(0, end);
+    }
+
+    /**
+     * Whether an encoded session has reached the parity error, read from the
+     * header alone: neither cursors nor memories are decoded.
+     */
+    public static boolean hasParityError(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            checkVersion(in);
+            readString(in); // language
+            return readVarint(in) >= Eliza.INSULT_THRESHOLD;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void checkVersion(DataInput in) throws IOException {
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported session state version " + version);
+        }
+    }
+
+    // Records compare arrays by identity; compare cursors by content instead
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof SessionState other
+                && language.equals(other.language)
+                && insultCount == other.insultCount
+                && Arrays.equals(cursors, other.cursors)
+                && memory.equals(other.memory);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(language, insultCount, Arrays.hashCode(cursors), memory);
+    }
+
+    @Override
+    public String toString() {
+        return "SessionState[language=" + language + ", insultCount=" + insultCount
+                + ", cursors=" + Arrays.toString(cursors) + ", memory=" + memory + "]";
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // Encoding helpers
+    // ─────────────────────────────────────────────────────────────
+
+    static void writeVarint(DataOutput out, int value) throws IOException {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative varint: " + value);
+        }
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int varintSize(int value) {
+        return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+
+    static int readVarint(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static void writeString(DataOutput out, String s) throws IOException {
+        byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, utf8.length);
+        out.write(utf8);
+    }
+
+    static int readLength(DataInput in, int max) throws IOException {
+        int length = readVarint(in);
+        if (length < 0 || length > max) {
+            throw new IOException("Length " + length + " outside 0.." + max);
+        }
+        return length;
+    }
+
+    static String readString(DataInput in) throws IOException {
+        byte[] utf8 = new byte[readLength(in, MAX_STRING_BYTES)];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,124 @@
+package com.eliza;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Warms the JVM up before a process takes traffic.
+ *
+ * <p>Replays a corpus built from each language's rules (one input per
+ * keyword, plus an unmatched input and one long multi-clause input) on
+ * scratch sessions, round after round, until the JIT compiler has done no
+ * work for {@value #SETTLED_ROUNDS} consecutive rounds or the time budget
+ * runs out. Class loading for SnakeYAML, {@code Normalizer}, and regex
+ * happens along the way. {@link #isReady()} flips once it is done.
+ */
+public final class Warmup {
+
+    /**
+     * What the warm-up did: how long it ran, and the average time per turn
+     * in its first and last rounds.
+     */
+    public record Report(int rounds, int turnsPerRound, Duration elapsed,
+                         long firstRoundNanosPerTurn, long lastRoundNanosPerTurn, boolean settled) {
+
+        /** How many times faster a turn ran in the last round than in the first. */
+        public double speedup() {
+            return lastRoundNanosPerTurn == 0 ? 1.0 : (double) firstRoundNanosPerTurn / lastRoundNanosPerTurn;
+        }
+
+        public String summary() {
+            return String.format("Warm-up: %d rounds of %d turns in %d ms, %.1f µs → %.1f µs per turn (%.1fx)%s",
+                    rounds, turnsPerRound, elapsed.toMillis(),
+                    firstRoundNanosPerTurn / 1000.0, lastRoundNanosPerTurn / 1000.0, speedup(),
+                    settled ? "" : ", stopped at time limit before compilation settled");
+        }
+    }
+
+    private static final int SETTLED_ROUNDS = 2;
+
+    private final Map<String, List<String>> corpora = new LinkedHashMap<>();
+    private final Duration maxDuration;
+    private volatile boolean ready;
+
+    public Warmup(Collection<String> languages, Duration maxDuration) {
+        for (String language : languages) {
+            corpora.put(language, corpus(language));
+        }
+        this.maxDuration = maxDuration;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Run the warm-up on the calling thread and mark this instance ready.
+     */
+    public Report run() {
+        CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+        boolean canWatchCompiler = compiler != null && compiler.isCompilationTimeMonitoringSupported();
+        int turnsPerRound = corpora.values().stream().mapToInt(List::size).sum();
+
+        long start = System.nanoTime();
+        long deadline = start + maxDuration.toNanos();
+        long firstRound = 0;
+        long lastRound = 0;
+        int rounds = 0;
+        int quietRounds = 0;
+        long compileTime = canWatchCompiler ? compiler.getTotalCompilationTime() : 0;
+        do {
+            lastRound = replayOnce();
+            if (rounds++ == 0) {
+                firstRound = lastRound;
+            }
+            if (canWatchCompiler) {
+                long now = compiler.getTotalCompilationTime();
+                quietRounds = now == compileTime ? quietRounds + 1 : 0;
+                compileTime = now;
+            }
+        } while (quietRounds < SETTLED_ROUNDS && System.nanoTime() < deadline);
+
+        ready = true;
+        return new Report(rounds, turnsPerRound, Duration.ofNanos(System.nanoTime() - start),
+                firstRound / turnsPerRound, lastRound / turnsPerRound, quietRounds >= SETTLED_ROUNDS);
+    }
+
+    /** Replay every corpus once on fresh sessions and return the time spent in turns. */
+    private long replayOnce() {
+        long elapsed = 0;
+        for (Map.Entry<String, List<String>> entry : corpora.entrySet()) {
+            Eliza scratch = new Eliza(entry.getKey());
+            List<String> inputs = entry.getValue();
+            long start = System.nanoTime();
+            for (int i = 0; i < inputs.size() - 1; i++) {
+                scratch.respond(inputs.get(i));
+            }
+            scratch.respond(inputs.get(inputs.size() - 1), InputLimits.DEFAULT);
+            elapsed += System.nanoTime() - start;
+        }
+        return elapsed;
+    }
+
+    /**
+     * One input per keyword of the language's rules, an input no keyword
+     * matches, and finally a long multi-clause input for the bounded path.
+     */
+    static List<String> corpus(String language) {
+        List<String> inputs = new ArrayList<>();
+        for (Rule rule : Eliza.loadRules(language)) {
+            if (!"@none".equals(rule.keyword())) {
+                inputs.add(rule.keyword().strip() + " warm up, ça va!");
+            }
+        }
+        inputs.add("xyzzy plugh");
+        inputs.add("xyzzy, ".repeat(200) + String.join(". ", inputs.subList(0, Math.min(5, inputs.size()))));
+        return inputs;
+    }
+}
@@ -0,0 +1,459 @@
+package com.eliza.cluster;
+
+import com.eliza.AdmissionController;
+import com.eliza.Eliza;
+import com.eliza.SessionState;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * One node of a sharded ELIZA cluster.
+ *
+ * <p>Sessions are owned by consistent hashing of the session id over the
+ * member addresses ({@link HashRing}). A request that lands on a node that
+ * does not hold the session is forwarded to the owner; a node whose ring
+ * disagrees forwards again, up to {@value #MAX_HOPS} hops, and only the owner
+ * ever starts a session. When membership changes, each node hands the
+ * sessions it no longer owns to their new owner as a {@link SessionState}
+ * snapshot, so memory, cursors, and insult counts survive a join or a
+ * graceful leave. Until {@link #join()} has pulled its share over, a new node
+ * routes the sessions it will own to their previous owner. A node that dies
+ * without leaving loses its sessions.
+ *
+ * <p>Nodes talk over plain TCP, one request per connection:
+ * <pre>
+ *   'R' respond:  UTF sessionId, text, byte hops          →  status, text
+ *   'H' handoff:  UTF sessionId, int length, state bytes  →  status
+ *   'M' members:  int count, count × UTF address          →  status
+ *   'S' status:                                           →  status, boolean ready
+ * </pre>
+ * where text is an int byte length followed by UTF-8, and status is 0 on
+ * success or 1 followed by a UTF error message. A handoff is refused if the
+ * receiver already holds the session, so it can never overwrite live state.
+ *
+ * <p>Local turns go through an {@link AdmissionController}; by default one
+ * slot per core, 64 queued turns, a 250 ms queue deadline, and the
+ * {@code @none} fallback when over budget.
+ */
+public class ClusterNode implements Closeable {
+
+    private static final byte OP_RESPOND = 'R';
+    private static final byte OP_HANDOFF = 'H';
+    private static final byte OP_MEMBERS = 'M';
+    private static final byte OP_STATUS = 'S';
+    private static final byte STATUS_OK = 0;
+    private static final byte STATUS_ERROR = 1;
+    private static final int TIMEOUT_MS = 5000;
+    private static final int MAX_HOPS = 3;
+    private static final int MAX_TEXT_BYTES = 1 << 20;
+    // Twice SessionState's memory budget, so every snapshot can move
+    private static final int MAX_STATE_BYTES = 1 << 24;
+
+    private final String self;
+    private final String language;
+    private final AdmissionController admission;
+    private final Map<String, Eliza> sessions = new ConcurrentHashMap<>();
+    private final ExecutorService handlers = Executors.newCachedThreadPool();
+    private volatile HashRing ring;
+    private volatile boolean ready;
+    private volatile boolean joined;
+    private ServerSocket server;
+    private Thread acceptor;
+
+    /**
+     * @param self     this node's address, as {@code host:port}
+     * @param language rules language for every session on this node
+     * @param members  addresses of all cluster members; {@code self} is added if missing
+     */
+    public ClusterNode(String self, String language, Collection<String> members) {
+        this(self, language, members, new AdmissionController(
+                Runtime.getRuntime().availableProcessors(), 64, Duration.ofMillis(250),
+                AdmissionController.Overload.DEGRADE));
+    }
+
+    /**
+     * @param admission admission control applied to every turn served by this node
+     */
+    public ClusterNode(String self, String language, Collection<String> members, AdmissionController admission) {
+        this.self = self;
+        this.language = language;
+        this.admission = admission;
+        Set<String> nodes = new HashSet<>(members);
+        nodes.add(self);
+        this.ring = new HashRing(nodes);
+    }
+
+    public void start() throws IOException {
+        server = new ServerSocket();
+        server.bind(address(self));
+        acceptor = new Thread(this::acceptLoop, "eliza-node-" + self);
+        acceptor.start();
+    }
+
+    /**
+     * Announce this node's member list to its peers, so that a node joining a
+     * running cluster receives the sessions it now owns. Only then does this
+     * node start serving those sessions itself.
+     */
+    public void join() {
+        broadcastMembers(ring.nodes());
+        joined = true;
+    }
+
+    /**
+     * Respond to a turn of the given session, forwarding it to the owner if
+     * this node does not own it.
+     */
+    public String respond(String sessionId, String text) throws IOException {
+        return respond(sessionId, text, 0);
+    }
+
+    /**
+     * Replace the member list and hand off every session this node no longer owns.
+     */
+    public void updateMembers(Collection<String> members) {
+        ring = new HashRing(members);
+        rebalance();
+    }
+
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    public String address() {
+        return self;
+    }
+
+    public AdmissionController admission() {
+        return admission;
+    }
+
+    /**
+     * Whether this node reports itself ready for traffic (for example, once
+     * warm-up is done). A node serves turns either way.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void setReady(boolean ready) {
+        this.ready = ready;
+    }
+
+    /**
+     * Leave the cluster gracefully: hand every session to its new owner, tell
+     * the remaining members, then stop serving.
+     */
+    @Override
+    public void close() throws IOException {
+        Set<String> remaining = new HashSet<>(ring.nodes());
+        remaining.remove(self);
+        if (!remaining.isEmpty()) {
+            // Hand off before announcing: until peers hear of the leave they keep routing
+            // our sessions here, and we forward them to new owners that already hold them
+            updateMembers(remaining);
+            broadcastMembers(remaining);
+        }
+        if (server != null) {
+            server.close();
+        }
+        handlers.shutdown();
+    }
+
+    /**
+     * Send one turn to a cluster node and return ELIZA's response.
+     */
+    public static String send(String address, String sessionId, String text) throws IOException {
+        return request(address, sessionId, text, 0);
+    }
+
+    /**
+     * Ask a cluster node whether it is ready for traffic.
+     */
+    public static boolean isReady(String address) throws IOException {
+        try (Socket socket = connect(address);
+             DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+             DataInputStream in = new DataInputStream(socket.getInputStream())) {
+            out.writeByte(OP_STATUS);
+            out.flush();
+            readStatus(in);
+            return in.readBoolean();
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // Routing and handoff
+    // ─────────────────────────────────────────────────────────────
+
+    private String respond(String sessionId, String text, int hops) throws IOException {
+        while (true) {
+            // Whoever holds the state serves it, even if the ring has moved on
+            Eliza eliza = sessions.get(sessionId);
+            if (eliza == null) {
+                String owner = owner(sessionId);
+                if (!owner.equals(self)) {
+                    // Nodes with briefly different member lists may bounce a request;
+                    // give up rather than start the session somewhere it does not belong
+                    if (hops >= MAX_HOPS) {
+                        throw new IOException("Session " + sessionId + " is moving between nodes; retry");
+                    }
+                    return request(owner, sessionId, text, hops + 1);
+                }
+                eliza = sessions.computeIfAbsent(sessionId, id -> new Eliza(language));
+            }
+            try {
+                return admit(sessionId, eliza, text);
+            } catch (SessionMoved e) {
+                // Handed off while we waited; route again against the new ring
+            }
+        }
+    }
+
+    private String owner(String sessionId) {
+        HashRing current = ring;
+        String owner = current.owner(sessionId);
+        if (owner.equals(self) && !joined) {
+            String previous = current.ownerExcluding(sessionId, self);
+            return previous != null ? previous : self;
+        }
+        return owner;
+    }
+
+    /**
+     * Run a turn under admission control. The session lock is taken only once
+     * a slot is held, so queued turns never pin it.
+     */
+    private String admit(String sessionId, Eliza eliza, String text) throws IOException {
+        AdmissionController.Reply reply = admission.respond(() -> {
+            synchronized (eliza) {
+                if (sessions.get(sessionId) != eliza) {
+                    throw new SessionMoved();
+                }
+                return eliza.respond(text);
+            }
+        }, eliza::fallback);
+        if (reply.outcome() == AdmissionController.Outcome.REJECTED) {
+            throw new IOException("Overloaded; retry after " + reply.retryAfter().toMillis() + " ms");
+        }
+        return reply.text();
+    }
+
+    private void rebalance() {
+        for (String sessionId : sessions.keySet()) {
+            String owner = ring.owner(sessionId);
+            if (!owner.equals(self)) {
+                handOff(sessionId, owner);
+            }
+        }
+    }
+
+    private void handOff(String sessionId, String owner) {
+        Eliza eliza = sessions.get(sessionId);
+        if (eliza == null) {
+            return;
+        }
+        // Keep the session until the new owner has acked it; its turns wait on the
+        // lock meanwhile, then find it gone and follow it
+        synchronized (eliza) {
+            if (sessions.get(sessionId) != eliza) {
+                return;
+            }
+            byte[] bytes = eliza.snapshot().toBytes();
+            try {
+                if (bytes.length > MAX_STATE_BYTES) {
+                    throw new IOException("state of " + bytes.length + " bytes exceeds the " + MAX_STATE_BYTES + " byte limit");
+                }
+                try (Socket socket = connect(owner);
+                     DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                     DataInputStream in = new DataInputStream(socket.getInputStream())) {
+                    out.writeByte(OP_HANDOFF);
+                    out.writeUTF(sessionId);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                    out.flush();
+                    readStatus(in);
+                }
+            } catch (IOException e) {
+                // The session stays parked here. Peers route its turns to the new owner,
+                // which starts it afresh, so only turns sent straight to this node reach
+                // it; the next rebalance retries the handoff.
+                System.err.println("Handoff of session " + sessionId + " to " + owner + " failed: " + e.getMessage());
+                return;
+            }
+            sessions.remove(sessionId, eliza);
+        }
+    }
+
+    private void broadcastMembers(Set<String> members) {
+        for (String peer : members) {
+            if (peer.equals(self)) {
+                continue;
+            }
+            try (Socket socket = connect(peer);
+                 DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                 DataInputStream in = new DataInputStream(socket.getInputStream())) {
+                out.writeByte(OP_MEMBERS);
+                out.writeInt(members.size());
+                for (String member : members) {
+                    out.writeUTF(member);
+                }
+                out.flush();
+                readStatus(in);
+            } catch (IOException e) {
+                System.err.println("Could not reach " + peer + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // Server side
+    // ─────────────────────────────────────────────────────────────
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                handlers.execute(() -> handle(socket));
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    System.err.println("Accept failed on " + self + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(socket.getInputStream());
+             DataOutputStream out = new DataOutputStream(socket.getOutputStream())) {
+            socket.setSoTimeout(TIMEOUT_MS);
+            try {
+                byte op = in.readByte();
+                switch (op) {
+                    case OP_RESPOND -> {
+                        String sessionId = in.readUTF();
+                        String text = readText(in);
+                        int hops = in.readUnsignedByte();
+                        String response = respond(sessionId, text, hops);
+                        out.writeByte(STATUS_OK);
+                        writeText(out, response);
+                    }
+                    case OP_HANDOFF -> {
+                        String sessionId = in.readUTF();
+                        byte[] bytes = new byte[readLength(in, MAX_STATE_BYTES)];
+                        in.readFully(bytes);
+                        Eliza eliza = new Eliza(language);
+                        eliza.restore(SessionState.fromBytes(bytes));
+                        if (sessions.putIfAbsent(sessionId, eliza) != null) {
+                            throw new IOException("Session " + sessionId + " already lives on " + self);
+                        }
+                        out.writeByte(STATUS_OK);
+                    }
+                    case OP_MEMBERS -> {
+                        int count = in.readInt();
+                        Set<String> members = new HashSet<>();
+                        for (int i = 0; i < count; i++) {
+                            members.add(in.readUTF());
+                        }
+                        // Ack only once our handoffs are done, so join() and close() return
+                        // with the sessions already in place
+                        updateMembers(members);
+                        out.writeByte(STATUS_OK);
+                    }
+                    case OP_STATUS -> {
+                        out.writeByte(STATUS_OK);
+                        out.writeBoolean(ready);
+                    }
+                    default -> throw new IOException("Unknown operation " + op);
+                }
+            } catch (IOException | RuntimeException e) {
+                out.writeByte(STATUS_ERROR);
+                out.writeUTF(String.valueOf(e.getMessage()));
+            }
+            out.flush();
+        } catch (IOException e) {
+            System.err.println("Connection to " + self + " failed: " + e.getMessage());
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // Client side
+    // ─────────────────────────────────────────────────────────────
+
+    private static String request(String address, String sessionId, String text, int hops) throws IOException {
+        try (Socket socket = connect(address);
+             DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+             DataInputStream in = new DataInputStream(socket.getInputStream())) {
+            out.writeByte(OP_RESPOND);
+            out.writeUTF(sessionId);
+            writeText(out, text);
+            out.writeByte(hops);
+            out.flush();
+            readStatus(in);
+            return readText(in);
+        }
+    }
+
+    private static Socket connect(String address) throws IOException {
+        Socket socket = new Socket();
+        socket.connect(address(address), TIMEOUT_MS);
+        socket.setSoTimeout(TIMEOUT_MS);
+        return socket;
+    }
+
+    private static void readStatus(DataInputStream in) throws IOException {
+        if (in.readByte() != STATUS_OK) {
+            throw new IOException(in.readUTF());
+        }
+    }
+
+    private static void writeText(DataOutputStream out, String text) throws IOException {
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readText(DataInputStream in) throws IOException {
+        byte[] utf8 = new byte[readLength(in, MAX_TEXT_BYTES)];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static int readLength(DataInputStream in, int max) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > max) {
+            throw new IOException("Length " + length + " outside 0.." + max);
+        }
+        return length;
+    }
+
+    /** Thrown from inside an admitted turn whose session was handed off meanwhile. */
+    private static final class SessionMoved extends RuntimeException {
+        SessionMoved() {
+            super(null, null, false, false);
+        }
+    }
+
+    static InetSocketAddress address(String hostPort) {
+        int colon = hostPort.lastIndexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Expected host:port, got " + hostPort);
+        }
+        return new InetSocketAddress(hostPort.substring(0, colon), Integer.parseInt(hostPort.substring(colon + 1)));
+    }
+}
@@ -0,0 +1,85 @@
+package com.eliza.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * An immutable consistent-hash ring mapping session ids to node addresses.
+ *
+ * <p>Each node is placed at {@value #VIRTUAL_NODES} points on the ring so load
+ * spreads evenly, and adding or removing a node only moves the sessions
+ * adjacent to its points. Every node builds the same ring from the same
+ * member list, so no coordinator is needed to agree on ownership.
+ */
+public final class HashRing {
+
+    static final int VIRTUAL_NODES = 128;
+
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+    private final Set<String> nodes;
+
+    public HashRing(Collection<String> nodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A ring needs at least one node");
+        }
+        this.nodes = Set.copyOf(new TreeSet<>(nodes));
+        for (String node : this.nodes) {
+            for (int i = 0; i < VIRTUAL_NODES; i++) {
+                ring.put(hash(node + "#" + i), node);
+            }
+        }
+    }
+
+    /**
+     * The node that owns the given key: the first point at or after the
+     * key's hash, wrapping around.
+     */
+    public String owner(String key) {
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * The node that would own the given key if {@code excluded} were not a
+     * member, or {@code null} if it is the only one. Removing a node only
+     * moves its own keys, so this is the next point that is not one of its.
+     */
+    public String ownerExcluding(String key, String excluded) {
+        long h = hash(key);
+        for (String node : ring.tailMap(h, true).values()) {
+            if (!node.equals(excluded)) {
+                return node;
+            }
+        }
+        for (String node : ring.headMap(h, false).values()) {
+            if (!node.equals(excluded)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    public Set<String> nodes() {
+        return nodes;
+    }
+
+    static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            long h = 0;
+            for (int i = 0; i < 8; i++) {
+                h = (h << 8) | (digest[i] & 0xFF);
+            }
+            return h;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.eliza.store;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An open-addressing hash map from {@code long} keys to {@code long} values,
+ * held in a direct buffer.
+ *
+ * <p>Linear probing with backward-shift deletion, so there are no
+ * tombstones; the table doubles when it is more than 70% full. The value
+ * {@link SlabAllocator#NONE} marks an empty slot and cannot be stored.
+ *
+ * <p>Not thread-safe; {@link SessionStore} serializes access.
+ */
+final class OffHeapIndex {
+
+    private static final int ENTRY_BYTES = 2 * Long.BYTES;
+    private static final double MAX_LOAD = 0.7;
+
+    private ByteBuffer table;
+    private int mask;
+    private int size;
+
+    OffHeapIndex(int initialCapacity) {
+        allocate(Integer.highestOneBit(Math.max(16, initialCapacity - 1) << 1));
+    }
+
+    /** The value for {@code key}, or {@link SlabAllocator#NONE}. */
+    long get(long key) {
+        for (int slot = home(key); ; slot = (slot + 1) & mask) {
+            long value = value(slot);
+            if (value == SlabAllocator.NONE) {
+                return SlabAllocator.NONE;
+            }
+            if (key(slot) == key) {
+                return value;
+            }
+        }
+    }
+
+    /** Associate {@code value} with {@code key}, returning the previous value or {@link SlabAllocator#NONE}. */
+    long put(long key, long value) {
+        if (value == SlabAllocator.NONE) {
+            throw new IllegalArgumentException("Reserved value");
+        }
+        if (size + 1 > MAX_LOAD * (mask + 1)) {
+            resize();
+        }
+        for (int slot = home(key); ; slot = (slot + 1) & mask) {
+            long existing = value(slot);
+            if (existing == SlabAllocator.NONE) {
+                write(slot, key, value);
+                size++;
+                return SlabAllocator.NONE;
+            }
+            if (key(slot) == key) {
+                write(slot, key, value);
+                return existing;
+            }
+        }
+    }
+
+    /** Remove {@code key}, returning its value or {@link SlabAllocator#NONE}. */
+    long remove(long key) {
+        int slot = home(key);
+        while (true) {
+            long value = value(slot);
+            if (value == SlabAllocator.NONE) {
+                return SlabAllocator.NONE;
+            }
+            if (key(slot) == key) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        long removed = value(slot);
+        // Shift later entries of the same probe run back into the gap
+        int gap = slot;
+        for (int next = (gap + 1) & mask; value(next) != SlabAllocator.NONE; next = (next + 1) & mask) {
+            int home = home(key(next));
+            boolean movable = gap <= next ? (home <= gap || home > next) : (home <= gap && home > next);
+            if (movable) {
+                write(gap, key(next), value(next));
+                gap = next;
+            }
+        }
+        write(gap, 0, SlabAllocator.NONE);
+        size--;
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long reservedBytes() {
+        return table.capacity();
+    }
+
+    private void resize() {
+        ByteBuffer old = table;
+        int oldCapacity = mask + 1;
+        allocate(oldCapacity << 1);
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            long value = old.getLong(slot * ENTRY_BYTES + Long.BYTES);
+            if (value != SlabAllocator.NONE) {
+                put(old.getLong(slot * ENTRY_BYTES), value);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        table = ByteBuffer.allocateDirect(capacity * ENTRY_BYTES);
+        mask = capacity - 1;
+        size = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            write(slot, 0, SlabAllocator.NONE);
+        }
+    }
+
+    private int home(long key) {
+        // SplitMix64 finalizer, so sequential ids spread over the table
+        long h = key;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        h = h ^ (h >>> 31);
+        return (int) h & mask;
+    }
+
+    private long key(int slot) {
+        return table.getLong(slot * ENTRY_BYTES);
+    }
+
+    private long value(int slot) {
+        return table.getLong(slot * ENTRY_BYTES + Long.BYTES);
+    }
+
+    private void write(int slot, long key, long value) {
+        table.putLong(slot * ENTRY_BYTES, key);
+        table.putLong(slot * ENTRY_BYTES + Long.BYTES, value);
+    }
+}
@@ -0,0 +1,137 @@
+package com.eliza.store;
+
+import com.eliza.Eliza;
+import com.eliza.SessionState;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Holds the state of many mostly idle conversations off the Java heap.
+ *
+ * <p>Each session is kept only as its encoded {@link SessionState} (insult
+ * count, non-zero round-robin cursors, pending memories) in a
+ * {@link SlabAllocator} block, found through an {@link OffHeapIndex} keyed by
+ * session id. For a turn, a pooled {@link Eliza} is borrowed, restored from
+ * the record, asked to respond, and snapshotted back; the pool only grows
+ * with the number of turns running at once. Heap use and GC work are
+ * therefore independent of how many sessions exist.
+ *
+ * <p>Thread-safe. Turns on the same session are serialized; turns on
+ * different sessions run in parallel, apart from brief critical sections
+ * around the index and the allocator.
+ */
+public class SessionStore {
+
+    private static final int STRIPES = 64;
+
+    private final String language;
+    private final SessionState freshState;
+    private final Queue<Eliza> views = new ConcurrentLinkedQueue<>();
+    private final Object[] stripes = new Object[STRIPES];
+    private final OffHeapIndex index = new OffHeapIndex(1024);
+    private final SlabAllocator slabs = new SlabAllocator();
+
+    public SessionStore(String language) {
+        this.language = language;
+        Eliza template = new Eliza(language);
+        this.freshState = template.snapshot();
+        views.add(template);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    /**
+     * Run one turn of the given session, creating it on first use.
+     */
+    public String respond(long sessionId, String input) {
+        synchronized (stripe(sessionId)) {
+            Eliza view = borrow(sessionId);
+            try {
+                String response = view.respond(input);
+                save(sessionId, view.snapshot());
+                return response;
+            } finally {
+                views.add(view);
+            }
+        }
+    }
+
+    public boolean hasParityError(long sessionId) {
+        byte[] record = load(sessionId);
+        return record != null && SessionState.hasParityError(record);
+    }
+
+    /**
+     * The stored state of a session, or {@code null} if it does not exist.
+     */
+    public SessionState get(long sessionId) {
+        byte[] record = load(sessionId);
+        return record != null ? SessionState.fromBytes(record) : null;
+    }
+
+    /**
+     * Store a session's state, replacing any existing one (for example, one
+     * handed over from another node).
+     */
+    public void put(long sessionId, SessionState state) {
+        if (!language.equals(state.language())) {
+            throw new IllegalArgumentException("Cannot store a " + state.language() + " session in a " + language + " store");
+        }
+        synchronized (stripe(sessionId)) {
+            save(sessionId, state);
+        }
+    }
+
+    public boolean remove(long sessionId) {
+        synchronized (stripe(sessionId)) {
+            synchronized (this) {
+                long handle = index.remove(sessionId);
+                if (handle == SlabAllocator.NONE) {
+                    return false;
+                }
+                slabs.free(handle);
+                return true;
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /** Off-heap bytes reserved for the index and the slabs. */
+    public synchronized long offHeapBytes() {
+        return index.reservedBytes() + slabs.reservedBytes();
+    }
+
+    private Eliza borrow(long sessionId) {
+        Eliza view = views.poll();
+        if (view == null) {
+            view = new Eliza(language);
+        }
+        byte[] record = load(sessionId);
+        view.restore(record != null ? SessionState.fromBytes(record) : freshState);
+        return view;
+    }
+
+    private synchronized byte[] load(long sessionId) {
+        long handle = index.get(sessionId);
+        return handle != SlabAllocator.NONE ? slabs.load(handle) : null;
+    }
+
+    private void save(long sessionId, SessionState state) {
+        byte[] record = state.toBytes();
+        synchronized (this) {
+            long previous = index.put(sessionId, slabs.store(record));
+            if (previous != SlabAllocator.NONE) {
+                slabs.free(previous);
+            }
+        }
+    }
+
+    private Object stripe(long sessionId) {
+        return stripes[(int) (sessionId ^ (sessionId >>> 32)) & (STRIPES - 1)];
+    }
+}
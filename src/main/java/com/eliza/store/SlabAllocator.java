@@ -0,0 +1,171 @@
+package com.eliza.store;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Allocates variable-length byte records in off-heap slabs.
+ *
+ * <p>Records are rounded up to power-of-two size classes from 32 bytes to
+ * 64 KiB; each class carves blocks out of its own 1 MiB direct buffers and
+ * keeps freed blocks on a free list threaded through the blocks themselves.
+ * A record is addressed by a {@code long} handle packing class, slab, and
+ * offset, so nothing on the heap grows with the number of records.
+ *
+ * <p>A record too large for one 64 KiB block is stored as a chain: the head
+ * block holds the length and a link to the next block, each later block a
+ * link and the next stretch of bytes, the last one sized to what remains.
+ *
+ * <p>Not thread-safe; {@link SessionStore} serializes access.
+ */
+final class SlabAllocator {
+
+    static final int MIN_BLOCK_SHIFT = 5;
+    static final int MAX_BLOCK_SHIFT = 16;
+    static final int SLAB_SIZE = 1 << 20;
+    static final long NONE = -1L;
+
+    private static final int CLASSES = MAX_BLOCK_SHIFT - MIN_BLOCK_SHIFT + 1;
+    private static final int LENGTH_BYTES = Integer.BYTES;
+    private static final int LINK_BYTES = Long.BYTES;
+    private static final int MAX_BLOCK = 1 << MAX_BLOCK_SHIFT;
+    private static final int MAX_INLINE = MAX_BLOCK - LENGTH_BYTES;
+
+    private final List<List<ByteBuffer>> slabs = new ArrayList<>();
+    private final int[] bump = new int[CLASSES];
+    private final long[] freeHead = new long[CLASSES];
+    private long allocatedBytes;
+
+    SlabAllocator() {
+        for (int i = 0; i < CLASSES; i++) {
+            slabs.add(new ArrayList<>());
+        }
+        Arrays.fill(bump, SLAB_SIZE);
+        Arrays.fill(freeHead, NONE);
+    }
+
+    /**
+     * Store a copy of {@code record} and return its handle.
+     */
+    long store(byte[] record) {
+        if (record.length <= MAX_INLINE) {
+            long handle = allocate(sizeClass(LENGTH_BYTES + record.length));
+            ByteBuffer slab = slab(handle);
+            int offset = offset(handle);
+            slab.putInt(offset, record.length);
+            slab.put(offset + LENGTH_BYTES, record);
+            return handle;
+        }
+        // Write the chain back to front, so each block already knows its successor
+        int headBytes = MAX_BLOCK - LENGTH_BYTES - LINK_BYTES;
+        int linkBytes = MAX_BLOCK - LINK_BYTES;
+        long next = NONE;
+        for (int end = record.length; end > headBytes; ) {
+            int start = end - ((end - headBytes - 1) % linkBytes + 1);
+            long handle = allocate(sizeClass(LINK_BYTES + end - start));
+            ByteBuffer slab = slab(handle);
+            int offset = offset(handle);
+            slab.putLong(offset, next);
+            slab.put(offset + LINK_BYTES, record, start, end - start);
+            next = handle;
+            end = start;
+        }
+        long head = allocate(sizeClass(MAX_BLOCK));
+        ByteBuffer slab = slab(head);
+        int offset = offset(head);
+        slab.putInt(offset, record.length);
+        slab.putLong(offset + LENGTH_BYTES, next);
+        slab.put(offset + LENGTH_BYTES + LINK_BYTES, record, 0, headBytes);
+        return head;
+    }
+
+    /**
+     * Copy the record at {@code handle} back onto the heap.
+     */
+    byte[] load(long handle) {
+        ByteBuffer slab = slab(handle);
+        int offset = offset(handle);
+        byte[] record = new byte[slab.getInt(offset)];
+        if (record.length <= MAX_INLINE) {
+            slab.get(offset + LENGTH_BYTES, record);
+            return record;
+        }
+        int headBytes = MAX_BLOCK - LENGTH_BYTES - LINK_BYTES;
+        long next = slab.getLong(offset + LENGTH_BYTES);
+        slab.get(offset + LENGTH_BYTES + LINK_BYTES, record, 0, headBytes);
+        for (int start = headBytes; next != NONE; ) {
+            slab = slab(next);
+            offset = offset(next);
+            int length = Math.min(MAX_BLOCK - LINK_BYTES, record.length - start);
+            next = slab.getLong(offset);
+            slab.get(offset + LINK_BYTES, record, start, length);
+            start += length;
+        }
+        return record;
+    }
+
+    void free(long handle) {
+        ByteBuffer slab = slab(handle);
+        int offset = offset(handle);
+        long next = slab.getInt(offset) > MAX_INLINE ? slab.getLong(offset + LENGTH_BYTES) : NONE;
+        release(handle);
+        while (next != NONE) {
+            long link = next;
+            next = slab(link).getLong(offset(link));
+            release(link);
+        }
+    }
+
+    /** Off-heap bytes reserved by slabs so far. */
+    long reservedBytes() {
+        return allocatedBytes;
+    }
+
+    private void release(long handle) {
+        int sizeClass = sizeClass(handle);
+        slab(handle).putLong(offset(handle), freeHead[sizeClass]);
+        freeHead[sizeClass] = handle;
+    }
+
+    private long allocate(int sizeClass) {
+        long head = freeHead[sizeClass];
+        if (head != NONE) {
+            freeHead[sizeClass] = slab(head).getLong(offset(head));
+            return head;
+        }
+        int blockSize = 1 << (sizeClass + MIN_BLOCK_SHIFT);
+        List<ByteBuffer> classSlabs = slabs.get(sizeClass);
+        if (bump[sizeClass] + blockSize > SLAB_SIZE) {
+            classSlabs.add(ByteBuffer.allocateDirect(SLAB_SIZE));
+            allocatedBytes += SLAB_SIZE;
+            bump[sizeClass] = 0;
+        }
+        int offset = bump[sizeClass];
+        bump[sizeClass] += blockSize;
+        return handle(sizeClass, classSlabs.size() - 1, offset);
+    }
+
+    private static int sizeClass(int bytes) {
+        return Math.max(MIN_BLOCK_SHIFT, 32 - Integer.numberOfLeadingZeros(bytes - 1)) - MIN_BLOCK_SHIFT;
+    }
+
+    // Handle layout: 4 bits size class | 28 bits slab index | 32 bits offset
+
+    private static long handle(int sizeClass, int slabIndex, int offset) {
+        return ((long) sizeClass << 60) | ((long) slabIndex << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    private static int sizeClass(long handle) {
+        return (int) (handle >>> 60);
+    }
+
+    private ByteBuffer slab(long handle) {
+        return slabs.get(sizeClass(handle)).get((int) ((handle >>> 32) & 0x0FFFFFFF));
+    }
+
+    private static int offset(long handle) {
+        return (int) handle;
+    }
+}
@@ -0,0 +1,154 @@
+package com.eliza;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControllerTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void servesWithinCapacity() {
+        AdmissionController controller = controller(2, 0, AdmissionController.Overload.REJECT);
+        AdmissionController.Reply reply = controller.respond(new Eliza(), "I want a vacation");
+        assertEquals(AdmissionController.Outcome.SERVED, reply.outcome());
+        assertTrue(reply.text().contains("vacation"), "Should run the full engine, got: " + reply.text());
+        assertEquals(1, controller.servedCount());
+    }
+
+    @Test
+    void degradesToFallbackWhenQueueIsFull() throws Exception {
+        AdmissionController controller = controller(1, 0, AdmissionController.Overload.DEGRADE);
+        Future<?> busy = occupySlot(controller);
+
+        Eliza other = new Eliza();
+        AdmissionController.Reply reply = controller.respond(other, "I want a vacation");
+        assertEquals(AdmissionController.Outcome.DEGRADED, reply.outcome());
+        assertEquals(new Eliza().fallback(), reply.text(), "Degraded reply should be the @none fallback");
+        assertEquals(1, controller.degradedCount());
+
+        release.countDown();
+        busy.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void rejectsWithRetryHintWhenQueueIsFull() throws Exception {
+        AdmissionController controller = controller(1, 0, AdmissionController.Overload.REJECT);
+        Future<?> busy = occupySlot(controller);
+
+        AdmissionController.Reply reply = controller.respond(new Eliza(), "Hello");
+        assertEquals(AdmissionController.Outcome.REJECTED, reply.outcome());
+        assertNull(reply.text());
+        assertTrue(reply.retryAfter().toNanos() > 0, "Rejection should carry a retry hint");
+        assertEquals(1, controller.rejectedCount());
+
+        release.countDown();
+        busy.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shedsQueuedTurnAfterDeadline() throws Exception {
+        AdmissionController controller = controller(1, 4, AdmissionController.Overload.DEGRADE);
+        Future<?> busy = occupySlot(controller);
+
+        long start = System.nanoTime();
+        AdmissionController.Reply reply = controller.respond(new Eliza(), "I want a vacation");
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertEquals(AdmissionController.Outcome.DEGRADED, reply.outcome());
+        assertTrue(waitedMillis >= 40, "Should wait for the queue deadline, waited " + waitedMillis + " ms");
+        assertEquals(0, controller.queuedCount());
+
+        release.countDown();
+        busy.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void sheddingLeavesSessionStateAlone() throws Exception {
+        AdmissionController controller = controller(1, 0, AdmissionController.Overload.DEGRADE);
+        Future<?> busy = occupySlot(controller);
+
+        Eliza session = new Eliza();
+        for (int i = 0; i < 4; i++) {
+            assertEquals(AdmissionController.Outcome.DEGRADED, controller.respond(session, "You are stupid").outcome());
+        }
+        assertFalse(session.hasParityError(), "Shed insults must not count toward the parity error");
+
+        release.countDown();
+        busy.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void latencyStaysBoundedAtTwiceSaturation() throws Exception {
+        // One slot and a 2 ms turn serve about 500 turns/s; offer one turn per millisecond
+        AdmissionController controller = controller(1, 64, AdmissionController.Overload.DEGRADE);
+        Supplier<String> turn = () -> {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(2));
+            return "served";
+        };
+        List<Future<Long>> latencies = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            latencies.add(executor.submit(() -> {
+                long start = System.nanoTime();
+                controller.respond(turn, () -> "degraded");
+                return System.nanoTime() - start;
+            }));
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        List<Long> sorted = new ArrayList<>();
+        for (Future<Long> latency : latencies) {
+            sorted.add(latency.get(5, TimeUnit.SECONDS));
+        }
+        Collections.sort(sorted);
+        long p99Millis = TimeUnit.NANOSECONDS.toMillis(sorted.get(sorted.size() * 99 / 100));
+
+        assertTrue(controller.servedCount() > 0 && controller.degradedCount() > 0,
+                "Load should be past saturation: served " + controller.servedCount() + ", degraded " + controller.degradedCount());
+        // Unshed, the backlog would grow by one turn every 2 ms; shedding caps waits at the 50 ms deadline
+        assertTrue(p99Millis < 100, "p99 latency should stay near the queue deadline, was " + p99Millis + " ms");
+    }
+
+    private static AdmissionController controller(int slots, int queue, AdmissionController.Overload overload) {
+        return new AdmissionController(slots, queue, Duration.ofMillis(50), overload);
+    }
+
+    /** Holds the controller's only slot with a session whose turn blocks until released. */
+    private Future<?> occupySlot(AdmissionController controller) throws InterruptedException {
+        Eliza blocking = new Eliza() {
+            @Override
+            public synchronized String respond(String input) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.respond(input);
+            }
+        };
+        Future<?> future = executor.submit(() -> controller.respond(blocking, "Hello"));
+        assertTrue(entered.await(5, TimeUnit.SECONDS), "Blocking turn should start");
+        return future;
+    }
+}
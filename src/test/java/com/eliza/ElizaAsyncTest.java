@@ -0,0 +1,196 @@
+package com.eliza;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.eliza.Transcripts.TURNS;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ElizaAsyncTest {
+
+    // ── respondAsync ──────────────────────────────────────────
+
+    @Test
+    void respondAsyncMatchesSynchronousTranscript() throws Exception {
+        Eliza async = new Eliza();
+        List<CompletableFuture<String>> turns = new ArrayList<>();
+        for (String turn : TURNS) {
+            turns.add(async.respondAsync(turn).toCompletableFuture());
+        }
+
+        List<String> responses = new ArrayList<>();
+        for (CompletableFuture<String> turn : turns) {
+            responses.add(turn.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(transcript(), responses, "Async turns should run in submission order");
+    }
+
+    @Test
+    void respondAsyncDoesNotBlockCaller() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Eliza slow = new Eliza() {
+            @Override
+            public synchronized String respond(String input) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.respond(input);
+            }
+        };
+        CompletableFuture<String> turn = slow.respondAsync("I want a holiday").toCompletableFuture();
+        assertFalse(turn.isDone(), "Caller should get the stage before the turn finishes");
+        release.countDown();
+        assertTrue(turn.get(5, TimeUnit.SECONDS).contains("holiday"));
+    }
+
+    // ── Flow processor ────────────────────────────────────────
+
+    @Test
+    void processorPublishesResponsesInOrder() throws Exception {
+        Collector collector = new Collector();
+        try (SubmissionPublisher<String> utterances = new SubmissionPublisher<>()) {
+            ElizaProcessor processor = new ElizaProcessor(new Eliza());
+            utterances.subscribe(processor);
+            processor.subscribe(collector);
+            collector.subscription.get(5, TimeUnit.SECONDS).request(Long.MAX_VALUE);
+            TURNS.forEach(utterances::submit);
+        }
+        assertTrue(collector.completed.await(5, TimeUnit.SECONDS), "Completion should propagate");
+        assertEquals(transcript(), collector.received);
+    }
+
+    @Test
+    void processorRespectsDownstreamDemand() throws Exception {
+        AtomicInteger turnsRun = new AtomicInteger();
+        Eliza counting = new Eliza() {
+            @Override
+            public synchronized String respond(String input) {
+                turnsRun.incrementAndGet();
+                return super.respond(input);
+            }
+        };
+        Collector collector = new Collector();
+        try (SubmissionPublisher<String> utterances = new SubmissionPublisher<>()) {
+            ElizaProcessor processor = new ElizaProcessor(counting, ElizaExecutors.defaultExecutor(), 1);
+            utterances.subscribe(processor);
+            processor.subscribe(collector);
+            Flow.Subscription subscription = collector.subscription.get(5, TimeUnit.SECONDS);
+            TURNS.forEach(utterances::submit);
+
+            Thread.sleep(300);
+            assertEquals(0, turnsRun.get(), "No turn should run without demand");
+
+            subscription.request(2);
+            Thread.sleep(300);
+            assertEquals(2, turnsRun.get(), "Only the requested turns should run");
+            assertEquals(2, collector.received.size());
+
+            subscription.request(Long.MAX_VALUE);
+        }
+        assertTrue(collector.completed.await(5, TimeUnit.SECONDS), "Completion should propagate");
+        assertEquals(transcript(), collector.received);
+    }
+
+    @Test
+    void processorHonoursDemandRequestedFromOnSubscribe() throws Exception {
+        for (Executor executor : List.<Executor>of(Runnable::run, ElizaExecutors.defaultExecutor())) {
+            for (int run = 0; run < 20; run++) {
+                Collector collector = new Collector(Long.MAX_VALUE);
+                try (SubmissionPublisher<String> utterances = new SubmissionPublisher<>()) {
+                    ElizaProcessor processor = new ElizaProcessor(new Eliza(), executor, 1);
+                    utterances.subscribe(processor);
+                    processor.subscribe(collector);
+                    TURNS.forEach(utterances::submit);
+                }
+                assertTrue(collector.completed.await(5, TimeUnit.SECONDS), "Demand from onSubscribe should not be lost");
+                assertEquals(transcript(), collector.received);
+            }
+        }
+    }
+
+    @Test
+    void stalledSubscriberDoesNotStarveSharedExecutor() throws Exception {
+        ExecutorService shared = Executors.newFixedThreadPool(1);
+        try (SubmissionPublisher<String> stalledInput = new SubmissionPublisher<>(shared, Flow.defaultBufferSize());
+             SubmissionPublisher<String> activeInput = new SubmissionPublisher<>(shared, Flow.defaultBufferSize())) {
+            Collector stalled = new Collector();
+            ElizaProcessor stalledProcessor = new ElizaProcessor(new Eliza(), shared, 1);
+            stalledInput.subscribe(stalledProcessor);
+            stalledProcessor.subscribe(stalled);
+            stalled.subscription.get(5, TimeUnit.SECONDS).request(1);
+            TURNS.forEach(stalledInput::submit);
+
+            Collector active = new Collector();
+            ElizaProcessor activeProcessor = new ElizaProcessor(new Eliza(), shared, 1);
+            activeInput.subscribe(activeProcessor);
+            activeProcessor.subscribe(active);
+            active.subscription.get(5, TimeUnit.SECONDS).request(Long.MAX_VALUE);
+            TURNS.forEach(activeInput::submit);
+            activeInput.close();
+
+            assertTrue(active.completed.await(5, TimeUnit.SECONDS), "Active session should finish beside a stalled one");
+            assertEquals(transcript(), active.received);
+            assertEquals(transcript().subList(0, 1), stalled.received);
+        } finally {
+            shared.shutdownNow();
+        }
+    }
+
+    private static List<String> transcript() {
+        return Transcripts.transcript("us", TURNS);
+    }
+
+    /** Records everything it receives; requests only what it is told to. */
+    private static final class Collector implements Flow.Subscriber<String> {
+        final CompletableFuture<Flow.Subscription> subscription = new CompletableFuture<>();
+        final List<String> received = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch completed = new CountDownLatch(1);
+        private final long initialDemand;
+
+        Collector() {
+            this(0);
+        }
+
+        /** @param initialDemand requested from within {@code onSubscribe}, as most subscribers do */
+        Collector(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription s) {
+            subscription.complete(s);
+            if (initialDemand > 0) {
+                s.request(initialDemand);
+            }
+        }
+
+        @Override
+        public void onNext(String item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            fail(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.eliza;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress tests for the engine's concurrency contract: separate sessions share
+ * nothing, and concurrent turns on one session are serialized without losing
+ * round-robin advances, memory entries, or insults.
+ */
+class ElizaConcurrencyTest {
+
+    private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    // ── Shared session ────────────────────────────────────────
+
+    @Test
+    void roundRobinIsExactUnderContention() throws Exception {
+        // Logged under the session's own lock, so the log is the order turns really ran in
+        List<String> log = new ArrayList<>();
+        Eliza eliza = new Eliza() {
+            @Override
+            public synchronized String respond(String input) {
+                String response = super.respond(input);
+                log.add(response);
+                return response;
+            }
+        };
+        int callsPerThread = 3000; // "sorry" has 3 reassemblies
+        List<List<String>> results = hammer(THREADS, () -> {
+            List<String> responses = new ArrayList<>();
+            for (int i = 0; i < callsPerThread; i++) {
+                responses.add(eliza.respond("Sorry about that"));
+            }
+            return responses;
+        });
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (List<String> responses : results) {
+            for (String response : responses) {
+                counts.merge(response, 1, Integer::sum);
+            }
+        }
+        int expected = THREADS * callsPerThread / 3;
+        assertEquals(Map.of(
+                        "Please don't apologize.", expected,
+                        "Apologies are not necessary.", expected,
+                        "What feelings does apologizing bring up?", expected),
+                counts, "Every reassembly should be handed out exactly as often as the others");
+
+        List<String> rotation = Transcripts.transcript("us", List.of("Sorry about that", "Sorry about that", "Sorry about that"));
+        assertEquals(THREADS * callsPerThread, log.size());
+        for (int i = 0; i < log.size(); i++) {
+            assertEquals(rotation.get(i % 3), log.get(i), "Turn " + i + " is out of round-robin order");
+        }
+    }
+
+    @Test
+    void memoryIsRecalledOnceInFifoOrder() throws Exception {
+        Eliza eliza = new Eliza();
+        int stored = THREADS * 200;
+        for (int i = 0; i < stored; i++) {
+            // "i want" stores a memory on every 5th match
+            for (int j = 0; j < 4; j++) {
+                eliza.respond("I want filler");
+            }
+            eliza.respond("I want item" + i);
+        }
+
+        Pattern recalled = Pattern.compile("You said earlier that you wanted item(\\d+)\\.");
+        List<List<String>> results = hammer(THREADS, () -> {
+            List<String> responses = new ArrayList<>();
+            for (int i = 0; i < stored; i++) {
+                responses.add(eliza.respond("xyzzy plugh"));
+            }
+            return responses;
+        });
+
+        boolean[] seen = new boolean[stored];
+        for (List<String> responses : results) {
+            int last = -1;
+            for (String response : responses) {
+                Matcher m = recalled.matcher(response);
+                if (m.find()) {
+                    int item = Integer.parseInt(m.group(1));
+                    assertFalse(seen[item], "Memory item" + item + " was recalled twice");
+                    assertTrue(item > last, "Memory recalled out of FIFO order: item" + item + " after item" + last);
+                    seen[item] = true;
+                    last = item;
+                }
+            }
+        }
+        for (int i = 0; i < stored; i++) {
+            assertTrue(seen[i], "Memory item" + i + " was lost");
+        }
+    }
+
+    @Test
+    void parityErrorThresholdIsExactUnderContention() throws Exception {
+        Eliza eliza = new Eliza();
+        List<List<String>> results = hammer(THREADS, () -> {
+            List<String> responses = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                responses.add(eliza.respond("You are stupid"));
+            }
+            return responses;
+        });
+
+        long survived = results.stream()
+                .flatMap(List::stream)
+                .filter(r -> !Eliza.PARITY_ERROR.equals(r))
+                .count();
+        assertEquals(3, survived, "Exactly three insults should be answered before the parity error");
+        assertTrue(eliza.hasParityError());
+    }
+
+    // ── Independent sessions ──────────────────────────────────
+
+    @Test
+    void parallelSessionsMatchSequentialTranscript() throws Exception {
+        List<String> corpus = Transcripts.readCorpus("parity_us.txt");
+        List<String> reference = Transcripts.replay("us", corpus);
+
+        List<List<String>> results = hammer(THREADS, () -> Transcripts.replay("us", corpus));
+        for (List<String> transcript : results) {
+            assertEquals(reference, transcript, "Sessions on different threads should not affect each other");
+        }
+    }
+
+    /** Runs the task on {@code threads} threads released together, and collects each result. */
+    private static <T> List<T> hammer(int threads, Callable<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -3,6 +3,10 @@ package com.eliza;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -473,4 +477,118 @@ class ElizaTest {
         assertFalse(response.contains("Earlier you mentioned your mother"),
                 "Memory should not be consumed on the same turn it was stored, got: " + response);
     }
+
+    // ── Session state ───────────────────────────────────────
+
+    @Test
+    void snapshotRoundTripPreservesConversation() {
+        Eliza original = new Eliza();
+        for (int i = 0; i < 5; i++) {
+            original.respond("I want a vacation");
+        }
+        original.respond("You are stupid");
+        original.respond("Hello");
+
+        byte[] wire = original.snapshot().toBytes();
+        assertEquals(original.snapshot(), SessionState.fromBytes(wire));
+        Eliza restored = new Eliza();
+        restored.restore(SessionState.fromBytes(wire));
+
+        for (String input : List.of("xyzzy plugh", "Hello", "Hello", "You idiot", "Shut up", "You are dumb")) {
+            assertEquals(original.respond(input), restored.respond(input), "Diverged on: " + input);
+        }
+        assertEquals(original.hasParityError(), restored.hasParityError());
+    }
+
+    @Test
+    void snapshotRejectsOtherLanguage() {
+        SessionState state = new Eliza("fr").snapshot();
+        assertThrows(IllegalArgumentException.class, () -> eliza.restore(state));
+    }
+
+    @Test
+    void snapshotBoundsTotalMemorySize() {
+        SessionState fresh = new Eliza().snapshot();
+        List<String> memories = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            memories.add(i + "x".repeat(300_000));
+        }
+        SessionState state = new SessionState("us", 0, fresh.cursors(), memories);
+        byte[] wire = state.toBytes();
+        assertTrue(wire.length <= SessionState.MAX_MEMORY_BYTES + 64, "Encoded state too large: " + wire.length);
+
+        List<String> kept = SessionState.fromBytes(wire).memory();
+        assertFalse(kept.isEmpty());
+        assertEquals(memories.subList(0, kept.size()), kept, "The oldest memories should be kept");
+    }
+
+    @Test
+    void snapshotRejectsOversizedLengths() {
+        // version, "us", insultCount 0, then a cursor count of Integer.MAX_VALUE
+        byte[] wire = {1, 2, 'u', 's', 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        assertThrows(UncheckedIOException.class, () -> SessionState.fromBytes(wire));
+    }
+
+    // ── Bounded input ───────────────────────────────────────
+
+    @Test
+    void boundedRespondAnswersFirstClauseWithKeyword() {
+        String response = eliza.respond("xyzzy plugh, I want a vacation. My mother is nice", InputLimits.DEFAULT);
+        assertTrue(response.contains("vacation"),
+                "The first clause with a keyword should be answered, got: " + response);
+    }
+
+    @Test
+    void boundedRespondMatchesRespondOnShortInput() {
+        Eliza other = new Eliza();
+        for (String input : List.of("I want my dog back", "Hello", "xyzzy plugh", "You are stupid")) {
+            assertEquals(other.respond(input), eliza.respond(input, InputLimits.DEFAULT), "Diverged on: " + input);
+        }
+        // The German decomposition spans a comma
+        String input = "Was wäre, wenn ich kündige";
+        assertEquals(new Eliza("de").respond(input), new Eliza("de").respond(input, InputLimits.DEFAULT));
+    }
+
+    @Test
+    void boundedRespondMovesOnWhenKeywordClauseDoesNotMatch() {
+        // "i want" is a keyword, but its decomposition needs something wanted
+        String response = eliza.respond("I want. My mother is nice", InputLimits.DEFAULT);
+        assertEquals(new Eliza().respond("My mother is nice"), response);
+    }
+
+    @Test
+    void boundedRespondStopsReadingAtCharacterCap() throws IOException {
+        int[] read = {0};
+        Reader endless = new Reader() {
+            @Override
+            public int read(char[] buffer, int offset, int length) {
+                for (int i = 0; i < length; i++) {
+                    buffer[offset + i] = "blah ".charAt((read[0] + i) % 5);
+                }
+                read[0] += length;
+                return length;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        String response = eliza.respond(endless, new InputLimits(10_000, 64));
+        assertNotNull(response);
+        assertEquals(10_000, read[0], "Should read exactly up to the cap");
+    }
+
+    @Test
+    void boundedRespondCapsCapturedText() {
+        String longWish = "I want " + "a very long list of things ".repeat(100_000);
+        String response = eliza.respond(longWish, new InputLimits(1 << 20, 40));
+        assertTrue(response.length() < 200, "Captured text should be capped, got " + response.length() + " chars");
+    }
+
+    @Test
+    void boundedRespondIgnoresKeywordsBeyondCap() {
+        String input = "la ".repeat(10_000) + "computer";
+        String response = eliza.respond(input, new InputLimits(1000, 64));
+        assertEquals(new Eliza().respond("xyzzy plugh"), response, "Keyword past the cap should not be seen");
+    }
 }
@@ -0,0 +1,106 @@
+package com.eliza;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class RulesBundleTest {
+
+    // ── Normalization ─────────────────────────────────────────
+
+    @Test
+    void rulesAreSortedByDescendingPriority() {
+        for (String language : RulesBundle.LANGUAGES) {
+            List<Rule> rules = Eliza.loadRules(language);
+            for (int i = 1; i < rules.size(); i++) {
+                assertTrue(rules.get(i - 1).priority() >= rules.get(i).priority(),
+                        language + ": rule " + rules.get(i).keyword() + " is out of priority order");
+            }
+        }
+    }
+
+    @Test
+    void keywordsAreAccentStripped() {
+        for (String language : RulesBundle.LANGUAGES) {
+            for (Rule rule : Eliza.loadRules(language)) {
+                assertEquals(Eliza.stripAccents(rule.keyword()), rule.keyword(),
+                        language + ": keyword should be accent-stripped");
+            }
+        }
+    }
+
+    @Test
+    void bundleIsMinified() {
+        String json = RulesBundle.toJson("us");
+        assertTrue(json.startsWith("{\"rules\":[{\"keyword\":"), "Unexpected bundle head: " + json.substring(0, 40));
+        assertFalse(json.contains("\n"), "Bundle should be a single line");
+        assertTrue(json.contains("\"reflections\":{"));
+        assertTrue(json.contains("\"messages\":{"));
+    }
+
+    @Test
+    void committedBundlesMatchRules() throws IOException {
+        // The Pages workflow deploys web/public as committed, without running Maven
+        for (String language : RulesBundle.LANGUAGES) {
+            Path committed = Path.of("web", "public", "bundle_" + language + ".json");
+            assertTrue(Files.exists(committed), committed + " is missing");
+            // assertTrue rather than assertEquals: a diff of two 50 KB lines is unreadable
+            assertTrue(RulesBundle.toJson(language).equals(Files.readString(committed, StandardCharsets.UTF_8)),
+                    committed + " is stale; run mvn process-classes and commit the result");
+        }
+    }
+
+    @Test
+    void invalidDecompositionFailsAtLoad() {
+        assertThrows(java.util.regex.PatternSyntaxException.class,
+                () -> new Rule.PatternResponse(".*(unclosed", List.of("A")));
+    }
+
+    // ── Java/JS parity ────────────────────────────────────────
+
+    @Test
+    void javaAndJavaScriptEnginesAgree(@TempDir Path tempDir) throws Exception {
+        assumeTrue(nodeAvailable(), "node is not installed; skipping parity check");
+
+        for (String language : RulesBundle.LANGUAGES) {
+            String corpusName = "parity_" + language + ".txt";
+            Path bundle = tempDir.resolve("bundle_" + language + ".json");
+            Path corpus = tempDir.resolve(corpusName);
+            Files.writeString(bundle, RulesBundle.toJson(language), StandardCharsets.UTF_8);
+            List<String> lines = Transcripts.readCorpus(corpusName);
+            Files.write(corpus, lines, StandardCharsets.UTF_8);
+
+            List<String> expected = Transcripts.replay(language, lines);
+            List<String> actual = runNode(bundle, corpus);
+            assertEquals(expected, actual, language + ": JS engine diverged from Java engine");
+        }
+    }
+
+    private static List<String> runNode(Path bundle, Path corpus) throws Exception {
+        Process process = new ProcessBuilder("node", "scripts/parity.js", bundle.toString(), corpus.toString())
+                .directory(Path.of("web").toFile())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertEquals(0, process.waitFor(), "parity.js exited with an error");
+        return output.lines().toList();
+    }
+
+    private static boolean nodeAvailable() {
+        try {
+            Process process = new ProcessBuilder("node", "--version").start();
+            process.getInputStream().readAllBytes();
+            return process.waitFor() == 0;
+        } catch (IOException | InterruptedException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.eliza;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Reference transcripts: what plain, dedicated sessions answer, for tests to
+ * compare concurrent, asynchronous, clustered, or stored sessions against.
+ */
+public final class Transcripts {
+
+    /** A short conversation covering greetings, round-robin, memory store and recall, and an insult. */
+    public static final List<String> TURNS = List.of(
+            "Hello", "I want a holiday", "I want a holiday", "Hello", "I want a holiday",
+            "I want a holiday", "I want a holiday", "xyzzy plugh", "You are stupid", "Hello");
+
+    private Transcripts() {
+    }
+
+    /** Responses of one fresh session to the given turns. */
+    public static List<String> transcript(String language, List<String> turns) {
+        Eliza eliza = new Eliza(language);
+        return turns.stream().map(eliza::respond).toList();
+    }
+
+    /** Replays a corpus through fresh sessions; a blank line starts a new session. */
+    public static List<String> replay(String language, List<String> lines) {
+        List<String> responses = new ArrayList<>();
+        Eliza eliza = new Eliza(language);
+        for (String line : lines) {
+            if (line.isBlank()) {
+                eliza = new Eliza(language);
+                continue;
+            }
+            responses.add(eliza.respond(line));
+        }
+        return responses;
+    }
+
+    /** The lines of a corpus on the test classpath. */
+    public static List<String> readCorpus(String name) throws IOException {
+        try (InputStream in = Transcripts.class.getClassLoader().getResourceAsStream(name)) {
+            assertNotNull(in, name + " not found on test classpath");
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+    }
+
+    /** One dedicated session per id, created on first use. */
+    public static final class Sessions<K> {
+        private final String language;
+        private final Map<K, Eliza> sessions = new HashMap<>();
+
+        public Sessions(String language) {
+            this.language = language;
+        }
+
+        public String respond(K id, String input) {
+            return sessions.computeIfAbsent(id, k -> new Eliza(language)).respond(input);
+        }
+
+        public int size() {
+            return sessions.size();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.eliza;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WarmupTest {
+
+    @Test
+    void corpusCoversEveryKeyword() {
+        for (String language : RulesBundle.LANGUAGES) {
+            List<String> corpus = Warmup.corpus(language);
+            for (Rule rule : Eliza.loadRules(language)) {
+                if (!"@none".equals(rule.keyword())) {
+                    String keyword = rule.keyword().strip();
+                    assertTrue(corpus.stream().anyMatch(input -> input.startsWith(keyword)),
+                            language + ": no warm-up input for " + keyword);
+                }
+            }
+        }
+    }
+
+    @Test
+    void readyOnlyAfterRun() {
+        Warmup warmup = new Warmup(List.of("us", "fr"), Duration.ofMillis(500));
+        assertFalse(warmup.isReady());
+
+        Warmup.Report report = warmup.run();
+        assertTrue(warmup.isReady());
+        assertTrue(report.rounds() >= 1);
+        assertTrue(report.turnsPerRound() > 300, "Both corpora should be replayed, got " + report.turnsPerRound());
+        assertTrue(report.firstRoundNanosPerTurn() > 0 && report.lastRoundNanosPerTurn() > 0);
+        assertTrue(report.summary().startsWith("Warm-up: "));
+    }
+
+    @Test
+    void stopsAtTimeLimit() {
+        Warmup.Report report = new Warmup(List.of("us"), Duration.ZERO).run();
+        assertEquals(1, report.rounds(), "A zero budget should still replay once");
+    }
+}
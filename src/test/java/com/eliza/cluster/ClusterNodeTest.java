@@ -0,0 +1,222 @@
+package com.eliza.cluster;
+
+import com.eliza.Eliza;
+import com.eliza.Transcripts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static com.eliza.Transcripts.TURNS;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterNodeTest {
+
+    private final List<ClusterNode> nodes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (ClusterNode node : nodes) {
+            node.close();
+        }
+    }
+
+    // ── Hash ring ─────────────────────────────────────────────
+
+    @Test
+    void ringIsDeterministicAndBalanced() {
+        List<String> members = List.of("127.0.0.1:1", "127.0.0.1:2", "127.0.0.1:3");
+        HashRing a = new HashRing(members);
+        HashRing b = new HashRing(List.of(members.get(2), members.get(0), members.get(1)));
+
+        Map<String, Integer> load = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            String owner = a.owner("session-" + i);
+            assertEquals(owner, b.owner("session-" + i), "Member order must not affect ownership");
+            load.merge(owner, 1, Integer::sum);
+        }
+        for (int count : load.values()) {
+            assertTrue(count > 600 && count < 1400, "Unbalanced ring: " + load);
+        }
+    }
+
+    @Test
+    void addingNodeOnlyMovesSessionsToIt() {
+        HashRing before = new HashRing(List.of("127.0.0.1:1", "127.0.0.1:2", "127.0.0.1:3"));
+        HashRing after = new HashRing(List.of("127.0.0.1:1", "127.0.0.1:2", "127.0.0.1:3", "127.0.0.1:4"));
+        int moved = 0;
+        for (int i = 0; i < 3000; i++) {
+            String key = "session-" + i;
+            if (!before.owner(key).equals(after.owner(key))) {
+                assertEquals("127.0.0.1:4", after.owner(key), "Sessions should only move to the new node");
+                moved++;
+            }
+        }
+        assertTrue(moved > 400 && moved < 1100, "About a quarter of sessions should move, moved " + moved);
+    }
+
+    // ── Forwarding and handoff ────────────────────────────────
+
+    @Test
+    void sessionsSurviveForwardingJoinAndLeave() throws IOException {
+        startCluster(3);
+        List<String> sessionIds = sessionIds(24);
+        Transcripts.Sessions<String> reference = new Transcripts.Sessions<>("us");
+
+        // Talk to every session through every node, so most turns are forwarded
+        converse(sessionIds, reference, 0, 4);
+
+        // A fourth node joins and takes over its share of the sessions
+        List<String> grown = new ArrayList<>(addresses());
+        grown.add(freeAddresses(1).get(0));
+        ClusterNode joined = startNode(grown.get(3), grown);
+        joined.join();
+        assertTrue(joined.sessionCount() > 0, "New node should receive sessions on join");
+        converse(sessionIds, reference, 4, 7);
+
+        // The first node leaves gracefully and hands off everything it owned
+        ClusterNode leaving = nodes.remove(0);
+        leaving.close();
+        assertEquals(0, leaving.sessionCount());
+        converse(sessionIds, reference, 7, TURNS.size());
+
+        int total = nodes.stream().mapToInt(ClusterNode::sessionCount).sum();
+        assertEquals(sessionIds.size(), total, "Every session should live on exactly one node");
+    }
+
+    @Test
+    void turnsBeforeJoinAreServedByThePreviousOwner() throws IOException {
+        startCluster(3);
+        List<String> sessionIds = sessionIds(24);
+        Transcripts.Sessions<String> reference = new Transcripts.Sessions<>("us");
+        converse(sessionIds, reference, 0, 4);
+
+        // Still warming up: the new node must not start sessions its ring says it owns
+        List<String> grown = new ArrayList<>(addresses());
+        grown.add(freeAddresses(1).get(0));
+        ClusterNode joining = startNode(grown.get(3), grown);
+        for (String id : sessionIds) {
+            assertEquals(reference.respond(id, TURNS.get(4)), ClusterNode.send(joining.address(), id, TURNS.get(4)),
+                    id + " diverged before join");
+        }
+        assertEquals(0, joining.sessionCount(), "A node should hold no sessions before it joins");
+
+        joining.join();
+        assertTrue(joining.sessionCount() > 0, "New node should receive sessions on join");
+        converse(sessionIds, reference, 5, TURNS.size());
+        int total = nodes.stream().mapToInt(ClusterNode::sessionCount).sum();
+        assertEquals(sessionIds.size(), total, "Every session should live on exactly one node");
+    }
+
+    @Test
+    void turnsDuringLeaveFollowTheirSessions() throws Exception {
+        startCluster(3);
+        List<String> sessionIds = sessionIds(24);
+        Transcripts.Sessions<String> reference = new Transcripts.Sessions<>("us");
+        converse(sessionIds, reference, 0, TURNS.size());
+
+        // Keep talking to every session through a staying node while the first one leaves
+        ClusterNode leaving = nodes.remove(0);
+        String entry = nodes.get(0).address();
+        AtomicBoolean left = new AtomicBoolean();
+        CompletableFuture<Integer> talker = CompletableFuture.supplyAsync(() -> {
+            int rounds = 0;
+            try {
+                for (boolean last = false; !last; rounds++) {
+                    last = left.get();
+                    String turn = TURNS.get(rounds % TURNS.size());
+                    for (String id : sessionIds) {
+                        assertEquals(reference.respond(id, turn), ClusterNode.send(entry, id, turn),
+                                id + " diverged during the leave, round " + rounds);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return rounds;
+        });
+        Thread.sleep(20);
+        leaving.close();
+        left.set(true);
+
+        assertTrue(talker.get(30, TimeUnit.SECONDS) > 1, "Turns should have run during the leave");
+        assertEquals(0, leaving.sessionCount());
+        int total = nodes.stream().mapToInt(ClusterNode::sessionCount).sum();
+        assertEquals(sessionIds.size(), total, "Every session should live on exactly one node");
+    }
+
+    @Test
+    void readinessIsReportedOverTheWire() throws IOException {
+        String address = freeAddresses(1).get(0);
+        ClusterNode node = startNode(address, List.of(address));
+        assertFalse(ClusterNode.isReady(address), "A node should start not ready");
+        node.setReady(true);
+        assertTrue(ClusterNode.isReady(address));
+        assertEquals(new Eliza().respond("Hello"), ClusterNode.send(address, "s", "Hello"));
+    }
+
+    private void converse(List<String> sessionIds, Transcripts.Sessions<String> reference, int from, int to) throws IOException {
+        for (int turn = from; turn < to; turn++) {
+            for (int s = 0; s < sessionIds.size(); s++) {
+                String id = sessionIds.get(s);
+                ClusterNode entry = nodes.get((s + turn) % nodes.size());
+                String expected = reference.respond(id, TURNS.get(turn));
+                assertEquals(expected, ClusterNode.send(entry.address(), id, TURNS.get(turn)),
+                        id + " diverged on turn " + turn);
+            }
+        }
+    }
+
+    private void startCluster(int size) throws IOException {
+        List<String> members = freeAddresses(size);
+        for (String member : members) {
+            startNode(member, members);
+        }
+        for (ClusterNode node : nodes) {
+            node.join();
+        }
+    }
+
+    private List<String> addresses() {
+        return nodes.stream().map(ClusterNode::address).toList();
+    }
+
+    private static List<String> sessionIds(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "session-" + i).toList();
+    }
+
+    private ClusterNode startNode(String address, List<String> members) throws IOException {
+        ClusterNode node = new ClusterNode(address, "us", members);
+        node.start();
+        nodes.add(node);
+        return node;
+    }
+
+    /** Distinct free loopback addresses; sockets stay open until all are picked so ports cannot repeat. */
+    private static List<String> freeAddresses(int count) throws IOException {
+        List<ServerSocket> sockets = new ArrayList<>();
+        try {
+            List<String> addresses = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                ServerSocket socket = new ServerSocket(0);
+                sockets.add(socket);
+                addresses.add("127.0.0.1:" + socket.getLocalPort());
+            }
+            return addresses;
+        } finally {
+            for (ServerSocket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+}
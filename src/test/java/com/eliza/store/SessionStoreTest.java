@@ -0,0 +1,126 @@
+package com.eliza.store;
+
+import com.eliza.Eliza;
+import com.eliza.SessionState;
+import com.eliza.Transcripts;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static com.eliza.Transcripts.TURNS;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionStoreTest {
+
+    // ── Store ─────────────────────────────────────────────────
+
+    @Test
+    void interleavedSessionsMatchDedicatedInstances() {
+        SessionStore store = new SessionStore("us");
+        Transcripts.Sessions<Long> reference = new Transcripts.Sessions<>("us");
+        Random random = new Random(42);
+        for (int step = 0; step < 2000; step++) {
+            long id = random.nextInt(50);
+            String input = TURNS.get(random.nextInt(TURNS.size()));
+            String expected = reference.respond(id, input);
+            assertEquals(expected, store.respond(id, input), "Session " + id + " diverged at step " + step);
+        }
+        assertEquals(reference.size(), store.size());
+    }
+
+    @Test
+    void parityErrorIsKeptPerSession() {
+        SessionStore store = new SessionStore("us");
+        for (int i = 0; i < 3; i++) {
+            store.respond(1, "You are stupid");
+        }
+        assertFalse(store.hasParityError(1), "Three insults are still below the threshold");
+        assertEquals(Eliza.PARITY_ERROR, store.respond(1, "You idiot"));
+        assertTrue(store.hasParityError(1));
+        assertFalse(store.hasParityError(2));
+    }
+
+    @Test
+    void manySessionsStayOffHeap() {
+        SessionStore store = new SessionStore("us");
+        int sessions = 100_000;
+        SessionState fresh = new Eliza().snapshot();
+        for (long id = 1; id <= sessions; id++) {
+            store.put(id, fresh);
+        }
+        assertEquals(sessions, store.size());
+        // A fresh session encodes to a few bytes and takes one 32-byte block plus 16-byte index slots
+        assertTrue(store.offHeapBytes() < 16L * 1024 * 1024, "Off-heap use too large: " + store.offHeapBytes());
+        assertEquals(new Eliza().respond("Hello"), store.respond(sessions, "Hello"));
+    }
+
+    @Test
+    void sessionWithLargeMemoriesKeepsGoing() {
+        SessionStore store = new SessionStore("us");
+        Eliza reference = new Eliza();
+        String wish = "I want a " + "very ".repeat(14_000) + "long holiday";
+        for (int i = 0; i < 5; i++) {
+            assertEquals(reference.respond(wish + i), store.respond(1, wish + i), "Diverged on wish " + i);
+        }
+        assertTrue(store.get(1).toBytes().length > 1 << 16, "State should outgrow one slab block");
+        for (String input : TURNS) {
+            assertEquals(reference.respond(input), store.respond(1, input), "Diverged on: " + input);
+        }
+    }
+
+    @Test
+    void removeFreesSession() {
+        SessionStore store = new SessionStore("us");
+        store.respond(7, "Hello");
+        assertTrue(store.remove(7));
+        assertFalse(store.remove(7));
+        assertNull(store.get(7));
+        assertEquals(new Eliza().respond("Hello"), store.respond(7, "Hello"), "Removed session should start over");
+    }
+
+    // ── Index and allocator ───────────────────────────────────
+
+    @Test
+    void indexSurvivesGrowthAndRemoval() {
+        OffHeapIndex index = new OffHeapIndex(16);
+        for (long key = 0; key < 10_000; key++) {
+            assertEquals(SlabAllocator.NONE, index.put(key, key * 3));
+        }
+        for (long key = 0; key < 10_000; key += 2) {
+            assertEquals(key * 3, index.remove(key));
+        }
+        assertEquals(5_000, index.size());
+        for (long key = 0; key < 10_000; key++) {
+            assertEquals(key % 2 == 0 ? SlabAllocator.NONE : key * 3, index.get(key), "Wrong value for " + key);
+        }
+    }
+
+    @Test
+    void allocatorReusesFreedBlocks() {
+        SlabAllocator slabs = new SlabAllocator();
+        long first = slabs.store(new byte[]{1, 2, 3});
+        slabs.free(first);
+        long second = slabs.store(new byte[]{4, 5});
+        assertEquals(first, second, "Freed block of the same class should be reused");
+        assertArrayEquals(new byte[]{4, 5}, slabs.load(second));
+
+        byte[] large = new byte[40_000];
+        large[39_999] = 9;
+        assertArrayEquals(large, slabs.load(slabs.store(large)));
+    }
+
+    @Test
+    void allocatorChainsRecordsLargerThanABlock() {
+        SlabAllocator slabs = new SlabAllocator();
+        for (int length : new int[]{(1 << 16) - 4, 1 << 16, 3 * (1 << 16) + 5, 300_000}) {
+            byte[] record = new byte[length];
+            new Random(length).nextBytes(record);
+            long handle = slabs.store(record);
+            assertArrayEquals(record, slabs.load(handle), "Record of " + length + " bytes");
+            long reserved = slabs.reservedBytes();
+            slabs.free(handle);
+            assertArrayEquals(record, slabs.load(slabs.store(record)), "Record of " + length + " bytes, stored again");
+            assertEquals(reserved, slabs.reservedBytes(), "Freed chain should be reused");
+        }
+    }
+}
@@ -0,0 +1,23 @@
+/**
+ * Replays a conversation corpus through the JS engine, one response per line.
+ * Used by the Java RulesBundleTest to check that both engines agree.
+ *
+ * Usage: node scripts/parity.js <bundle.json> <corpus.txt>
+ * A blank line in the corpus resets the engine (starts a new session).
+ */
+import { readFileSync } from 'node:fs';
+import { createEliza } from '../src/engine/eliza.js';
+
+const [bundlePath, corpusPath] = process.argv.slice(2);
+const bundle = JSON.parse(readFileSync(bundlePath, 'utf8'));
+const engine = createEliza(bundle);
+
+const output = [];
+for (const line of readFileSync(corpusPath, 'utf8').split(/\r?\n/)) {
+  if (line.trim() === '') {
+    engine.reset();
+    continue;
+  }
+  output.push(engine.respond(line));
+}
+process.stdout.write(output.join('\n') + '\n');
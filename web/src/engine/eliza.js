@@ -1,40 +1,44 @@
-import jsyaml from 'js-yaml';
-import { stripAccents, preprocess } from './preprocess.js';
+import { preprocess } from './preprocess.js';
 import { reflectText } from './reflect.js';
 
 const INSULT_THRESHOLD = 4;
 const PARITY_ERROR = 'PARITY ERROR!!! PARITY ERROR!!! SESSION TERMINATED.';
 
 /**
- * Async factory that creates an ELIZA engine for the given language.
- * Fetches and parses the rules and reflections YAML files.
+ * Fetch the precompiled rules bundle for the given language.
+ * Bundles are generated by the Maven build (com.eliza.RulesBundle).
  *
  * @param {string} language - "us", "fr", "de", or "es"
- * @returns {Promise<object>} engine with respond(), hasParityError(), reset()
+ * @returns {Promise<object>} bundle with rules, reflections, and messages
  */
-export async function createEliza(language) {
-  const [rulesData, reflectionsData] = await Promise.all([
-    fetch(`${import.meta.env.BASE_URL}rules_${language}.yaml`).then((r) => r.text()).then((t) => jsyaml.load(t)),
-    fetch(`${import.meta.env.BASE_URL}reflections_${language}.yaml`).then((r) => r.text()).then((t) => jsyaml.load(t)),
-  ]);
-
-  // Build rules array with round-robin index per PatternResponse
-  const rules = rulesData.rules.map((entry) => ({
+export async function loadBundle(language) {
+  const response = await fetch(`${import.meta.env.BASE_URL}bundle_${language}.json`);
+  return response.json();
+}
+
+/**
+ * Create an ELIZA engine from a rules bundle.
+ * The bundle is already normalized: keywords and decompositions are
+ * accent-stripped, rules are sorted by descending priority, and
+ * reflection keys are accent-stripped.
+ *
+ * @param {object} bundle - as returned by loadBundle()
+ * @returns {object} engine with respond(), hasParityError(), reset()
+ */
+export function createEliza(bundle) {
+  // Build rules array with a compiled regex and round-robin index per PatternResponse
+  const rules = bundle.rules.map((entry) => ({
     keyword: entry.keyword,
     priority: entry.priority,
     insult: entry.insult === true,
     patterns: entry.patterns.map((p) => ({
-      decomposition: p.decomposition,
+      regex: new RegExp(p.decomposition, 'i'),
       reassemblies: p.reassemblies,
       index: 0,
     })),
   }));
 
-  // Build reflections map with accent-stripped keys
-  const reflections = new Map();
-  for (const [key, value] of Object.entries(reflectionsData.reflections)) {
-    reflections.set(stripAccents(key), value);
-  }
+  const reflections = new Map(Object.entries(bundle.reflections));
 
   // Engine state
   let memory = [];
@@ -52,7 +56,8 @@ export async function createEliza(language) {
       const captured = match[i];
       if (captured != null) {
         const reflected = reflectText(captured.trim(), reflections);
-        result = result.replace(`{${i}}`, reflected);
+        // Replace every occurrence, literally, like Java's String.replace
+        result = result.replaceAll(`{${i}}`, () => reflected);
       }
     }
     return result;
@@ -60,8 +65,7 @@ export async function createEliza(language) {
 
   function applyRule(rule, text) {
     for (const pr of rule.patterns) {
-      const regex = new RegExp(stripAccents(pr.decomposition), 'i');
-      const match = text.match(regex);
+      const match = text.match(pr.regex);
       if (match) {
         const template = nextReassembly(pr);
 
@@ -93,11 +97,8 @@ export async function createEliza(language) {
   function respond(input) {
     const text = preprocess(input);
 
-    // Collect all matching rules, sorted by descending priority
-    const matchingRules = rules.filter((rule) =>
-      text.includes(stripAccents(rule.keyword))
-    );
-    matchingRules.sort((a, b) => b.priority - a.priority);
+    // Collect all matching rules; the bundle is already sorted by descending priority
+    const matchingRules = rules.filter((rule) => text.includes(rule.keyword));
 
     // Try each matching rule in priority order
     let storedMemory = false;
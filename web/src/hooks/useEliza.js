@@ -1,6 +1,5 @@
 import { useState, useCallback, useRef, useEffect } from 'react';
-import jsyaml from 'js-yaml';
-import { createEliza } from '../engine/eliza.js';
+import { createEliza, loadBundle } from '../engine/eliza.js';
 
 /**
  * Custom hook that manages the ELIZA engine lifecycle.
@@ -25,16 +24,12 @@ export function useEliza(initialLanguage = 'us') {
       setHasCrashed(false);
       setMessages([]);
 
-      const [engine, msgData] = await Promise.all([
-        createEliza(language),
-        fetch(`${import.meta.env.BASE_URL}messages_${language}.yaml`)
-          .then((r) => r.text())
-          .then((t) => jsyaml.load(t)),
-      ]);
+      const bundle = await loadBundle(language);
 
       if (cancelled) return;
 
-      engineRef.current = engine;
+      const msgData = bundle.messages;
+      engineRef.current = createEliza(bundle);
       setUiMessages(msgData);
 
       // Pick a random greeting